@@ -0,0 +1,4 @@
+package com.app.application.dto.auth;
+
+public record IssuedTokensDTO(String accessToken, long accessExpiresAt, String refreshToken, long refreshExpiresAt) {
+}
@@ -0,0 +1,4 @@
+package com.app.application.dto.auth;
+
+public record PrincipalDTO(Long id, String name, String email, boolean deleted) {
+}
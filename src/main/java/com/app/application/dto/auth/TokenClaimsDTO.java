@@ -0,0 +1,4 @@
+package com.app.application.dto.auth;
+
+public record TokenClaimsDTO(Long userId, String type, Long issuedAt, Long expiresAt, Long generation, String permissions) {
+}
@@ -0,0 +1,6 @@
+package com.app.application.dto.user;
+
+import java.util.List;
+
+public record UserPageDTO(List<UserResponseDTO> users, Long nextCursor) {
+}
@@ -1,134 +1,173 @@
 package com.app.application.service;
 
+import com.app.application.dto.auth.IssuedTokensDTO;
 import com.app.application.dto.auth.JwtClaimDTO;
 import com.app.application.dto.auth.LoginRequestDTO;
 import com.app.application.dto.auth.LoginResponseDTO;
 import com.app.application.dto.auth.RefreshAuthRequestDTO;
+import com.app.application.dto.auth.TokenClaimsDTO;
 import com.app.application.dto.user.UserResponseWithPasswordDTO;
 import com.app.application.exception.ResourceNotFound;
 import com.app.application.exception.UnauthenticatedException;
+import com.app.application.util.authentication.LoginThrottle;
+import com.app.application.util.authentication.TokenRevocationInterface;
+import com.app.application.util.authorization.PermissionClaims;
 import com.app.domain.entity.User;
-import com.app.infrastructure.cache.CacheInterface;
 import com.app.infrastructure.security.auth.AuthHolderInterface;
 import com.app.infrastructure.security.auth.JWTAuthInterface;
 import com.app.infrastructure.security.auth.exception.AuthException;
 import com.app.infrastructure.security.hasher.HasherInterface;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.*;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 public class AuthService {
+    public static final Duration ACCESS_TOKEN_LIFETIME = Duration.ofHours(1);
+    public static final Duration REFRESH_TOKEN_LIFETIME = Duration.ofHours(4);
+
     private final JWTAuthInterface auth;
+    private final JWTAuthInterface refreshAuth;
     private final UserService userService;
     private final HasherInterface hasher;
-    private final CacheInterface cache;
     private final AuthHolderInterface authHolder;
+    private final TokenRevocationInterface tokenRevocation;
+    private final Clock clock;
+    private final Executor rehashExecutor;
+    private final LoginThrottle loginThrottle;
+    private final UserRoleService userRoleService;
+    private final PermissionClaims permissionClaims;
 
     public AuthService(
             JWTAuthInterface auth,
+            JWTAuthInterface refreshAuth,
             UserService userService,
             HasherInterface hasher,
-            CacheInterface cache,
-            AuthHolderInterface authHolder
+            AuthHolderInterface authHolder,
+            TokenRevocationInterface tokenRevocation,
+            Clock clock,
+            Executor rehashExecutor,
+            LoginThrottle loginThrottle,
+            UserRoleService userRoleService,
+            PermissionClaims permissionClaims
     ) {
         this.auth = auth;
+        this.refreshAuth = refreshAuth;
         this.userService = userService;
         this.hasher = hasher;
-        this.cache = cache;
         this.authHolder = authHolder;
+        this.tokenRevocation = tokenRevocation;
+        this.clock = clock;
+        this.rehashExecutor = rehashExecutor;
+        this.loginThrottle = loginThrottle;
+        this.userRoleService = userRoleService;
+        this.permissionClaims = permissionClaims;
     }
 
-    public LoginResponseDTO attemptLogin(LoginRequestDTO loginRequestDTO) throws ResourceNotFound {
+    public LoginResponseDTO attemptLogin(LoginRequestDTO loginRequestDTO, String remoteAddress) throws ResourceNotFound {
+        // throttled attempts are turned away before they cost a query or a hash
+        this.loginThrottle.check(loginRequestDTO.email(), remoteAddress);
+
         UserResponseWithPasswordDTO user = null;
 
         try {
             user = this.userService.getUserForLogin(loginRequestDTO.email());
         } catch (ResourceNotFound exception) {
+            this.loginThrottle.recordFailure(loginRequestDTO.email(), remoteAddress);
             throw new UnauthenticatedException("Wrong credentials.");
         }
 
         boolean passwordMatches = hasher.checkHash(user.password(), loginRequestDTO.password());
 
         if (!passwordMatches) {
+            this.loginThrottle.recordFailure(loginRequestDTO.email(), remoteAddress);
             throw new UnauthenticatedException("Wrong credentials.");
         }
 
-        String currentUserToken = this.cache.get(user.id().toString() + "_current_token");
-
-        if (currentUserToken != null) {
-            this.cache.add("auth_tokens_blacklist", currentUserToken);
+        if (hasher.needsRehash(user.password())) {
+            this.rehashInBackground(user.id(), user.password(), loginRequestDTO.password());
         }
 
         return this.generateTokens(user.id());
     }
 
-    public LoginResponseDTO refreshToken(RefreshAuthRequestDTO refreshAuthRequestDTO) {
-        User loggedUser = this.authHolder.getUser();
-
-        String cachedRefreshToken = this.cache.get(loggedUser.getId() + "_refresh_token");
-
-        if (cachedRefreshToken == null) {
-            throw new AuthException("User does not have a refresh token stored.");
+    private void rehashInBackground(Long userId, String currentHash, String rawPassword) {
+        try {
+            this.rehashExecutor.execute(() -> {
+                try {
+                    this.userService.rehashPassword(userId, currentHash, rawPassword);
+                } catch (RuntimeException e) {
+                    // the stored hash still works, so the rehash is simply retried on the next login
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // same as above, a busy executor never delays the login itself
         }
+    }
 
-        if (!Objects.equals(refreshAuthRequestDTO.refreshToken(), cachedRefreshToken)) {
-            throw new AuthException("Invalid refresh token.");
-        }
+    public LoginResponseDTO refreshToken(RefreshAuthRequestDTO refreshAuthRequestDTO) {
+        User loggedUser = this.authHolder.getUser();
 
         this.checkRefreshTokenExpiration(refreshAuthRequestDTO.refreshToken());
 
-        String currentUserToken = this.cache.get(loggedUser.getId().toString() + "_current_token");
+        // the presented token is compared with the stored one and replaced together with its access token
+        // in the same round trip, so it can only ever be used once
+        IssuedTokensDTO tokens = this.tokenRevocation.rotate(
+                loggedUser.getId(),
+                refreshAuthRequestDTO.refreshToken(),
+                revocationClaims -> this.signTokens(loggedUser.getId(), revocationClaims)
+        );
 
-        this.cache.add("auth_tokens_blacklist", currentUserToken);
+        return new LoginResponseDTO(tokens.accessToken(), tokens.refreshToken());
+    }
 
-        return this.generateTokens(loggedUser.getId());
+    private void revokeToken(Long userId, String token) {
+        this.tokenRevocation.revoke(userId, token);
+        this.auth.invalidate(token);
     }
 
     private LoginResponseDTO generateTokens(Long userId) {
-        List<JwtClaimDTO> accessClaims = this.getAccessClaims(userId);
-        String accessToken = auth.createToken(accessClaims);
-        this.cache.set(userId + "_current_token", accessToken);
+        // storing the new tokens and revoking the ones they replace is left to the revocation mode,
+        // which does both in a single round trip
+        IssuedTokensDTO tokens = this.tokenRevocation.issue(userId, revocationClaims -> this.signTokens(userId, revocationClaims));
 
-        List<JwtClaimDTO> refreshClaims = this.getRefreshClaims(userId);
-        String refreshToken = auth.createToken(refreshClaims);
-        this.cache.set(userId + "_refresh_token", refreshToken);
+        return new LoginResponseDTO(tokens.accessToken(), tokens.refreshToken());
+    }
 
-        return new LoginResponseDTO(accessToken, refreshToken);
+    private IssuedTokensDTO signTokens(Long userId, List<JwtClaimDTO> revocationClaims) {
+        Instant issuedAt = this.clock.instant();
+        Instant accessExpiresAt = issuedAt.plus(ACCESS_TOKEN_LIFETIME);
+        Instant refreshExpiresAt = issuedAt.plus(REFRESH_TOKEN_LIFETIME);
+
+        List<JwtClaimDTO> accessClaims = this.getAccessClaims(userId);
+        accessClaims.addAll(revocationClaims);
+
+        String accessToken = auth.createToken(accessClaims, issuedAt, accessExpiresAt);
+        // refresh tokens never leave this service, so they are signed with the cheaper symmetric key
+        String refreshToken = refreshAuth.createToken(this.getRefreshClaims(userId), issuedAt, refreshExpiresAt);
+
+        return new IssuedTokensDTO(
+                accessToken,
+                accessExpiresAt.getEpochSecond(),
+                refreshToken,
+                refreshExpiresAt.getEpochSecond()
+        );
     }
 
     private void checkRefreshTokenExpiration(String refreshToken) {
-        auth.validateToken(refreshToken);
-        List<JwtClaimDTO> claims = auth.getClaims();
+        TokenClaimsDTO claims = refreshAuth.verifyToken(refreshToken);
 
-        String expiresAt = null;
-
-        for (JwtClaimDTO claimDTO : claims) {
-            if ("expiresAt".equals(claimDTO.key())) {
-                expiresAt = claimDTO.value();
-            }
-        }
+        Long expiresAt = claims.expiresAt();
 
         if (expiresAt == null) {
             throw new AuthException("Token's expiration not set.");
         }
 
-
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSSSSS");
-        Date currentDate = new Date();
-        String currentDateString = dateFormat.format(currentDate);
-
-        Date currentDateTime = null;
-        Date expiresAtDate = null;
-
-        try {
-            currentDateTime = dateFormat.parse(currentDateString);
-            expiresAtDate = dateFormat.parse(expiresAt);
-        } catch (ParseException exception) {
-            throw new AuthException("Date parsing failed.");
-        }
-
-        if (currentDateTime.after(expiresAtDate)) {
+        if (this.clock.millis() >= expiresAt * 1000) {
             throw new AuthException("Provided token is expired.");
         }
     }
@@ -137,21 +176,9 @@ public class AuthService {
         List<JwtClaimDTO> claims = new ArrayList<>();
         claims.add(new JwtClaimDTO("userId", userId.toString()));
 
-        Date currentDate = new Date();
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSSSSS");
-        String formattedDate = dateFormat.format(currentDate);
-
-        claims.add(new JwtClaimDTO("createdAt", formattedDate));
-
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(currentDate);
-
-        calendar.add(Calendar.HOUR_OF_DAY, 1);
-
-        Date expirationDate = calendar.getTime();
-        String formattedExpirationDate = dateFormat.format(expirationDate);
-
-        claims.add(new JwtClaimDTO("expiresAt", formattedExpirationDate));
+        if (this.permissionClaims.isEnabled()) {
+            claims.addAll(this.permissionClaims.toClaims(this.userRoleService.getUserRoles(userId)));
+        }
 
         return claims;
     }
@@ -159,22 +186,6 @@ public class AuthService {
     private List<JwtClaimDTO> getRefreshClaims(Long userId) {
         List<JwtClaimDTO> claims = new ArrayList<>();
         claims.add(new JwtClaimDTO("userId", userId.toString()));
-
-        Date currentDate = new Date();
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSSSSS");
-        String formattedDate = dateFormat.format(currentDate);
-
-        claims.add(new JwtClaimDTO("createdAt", formattedDate));
-
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(currentDate);
-
-        calendar.add(Calendar.HOUR_OF_DAY, 4);
-
-        Date expirationDate = calendar.getTime();
-        String formattedExpirationDate = dateFormat.format(expirationDate);
-
-        claims.add(new JwtClaimDTO("expiresAt", formattedExpirationDate));
         claims.add(new JwtClaimDTO("type", "refresh"));
 
         return claims;
@@ -183,7 +194,7 @@ public class AuthService {
     public boolean logout() {
         String authToken = this.authHolder.getToken();
 
-        this.cache.add("auth_tokens_blacklist", authToken);
+        this.revokeToken(this.authHolder.getUser().getId(), authToken);
 
         return true;
     }
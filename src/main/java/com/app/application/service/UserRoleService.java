@@ -3,92 +3,115 @@ package com.app.application.service;
 import com.app.application.dto.authorization.PermissionDTO;
 import com.app.application.dto.authorization.RoleDTO;
 import com.app.application.exception.ResourceNotFound;
-import com.app.infrastructure.persistence.entity.Permission;
+import com.app.application.util.authentication.PrincipalCache;
+import com.app.application.util.authentication.TokenRevocationInterface;
+import com.app.application.util.authorization.PermissionCache;
+import com.app.application.util.authorization.PermissionClaims;
+import com.app.application.util.authorization.RoleCatalog;
 import com.app.infrastructure.persistence.entity.Role;
 import com.app.infrastructure.persistence.entity.User;
+import com.app.infrastructure.persistence.exceptions.AssociationTargetsNotFoundException;
+import com.app.infrastructure.persistence.exceptions.EntityNotFoundException;
+import com.app.infrastructure.persistence.repository.FetchPlans;
 import com.app.infrastructure.persistence.repository.RepositoryInterface;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Objects;
 
 public class UserRoleService {
     private final RepositoryInterface<User> userRepository;
     private final RepositoryInterface<Role> roleRepository;
+    private final PrincipalCache principalCache;
+    private final PermissionCache permissionCache;
+    private final PermissionClaims permissionClaims;
+    private final TokenRevocationInterface tokenRevocation;
+    private final RoleCatalog roleCatalog;
 
     public UserRoleService(
             RepositoryInterface<User> userRepository,
-            RepositoryInterface<Role> roleRepository
+            RepositoryInterface<Role> roleRepository,
+            PrincipalCache principalCache,
+            PermissionCache permissionCache,
+            PermissionClaims permissionClaims,
+            TokenRevocationInterface tokenRevocation,
+            RoleCatalog roleCatalog
     ) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
+        this.principalCache = principalCache;
+        this.permissionCache = permissionCache;
+        this.permissionClaims = permissionClaims;
+        this.tokenRevocation = tokenRevocation;
+        this.roleCatalog = roleCatalog;
     }
 
     public List<RoleDTO> getUserRoles(Long userId) {
-        User user = this.getUser(userId);
-
-        Set<Role> roles = user.getRoles();
+        User user = this.getUser(userId, FetchPlans.USER_ROLES);
 
         List<RoleDTO> rolesDTOs = new ArrayList<>();
 
-        roles.forEach(role -> {
-            Set<Permission> rolePermissions = role.getPermissions();
-
-            List<PermissionDTO> rolePermissionsDTOs = new ArrayList<>();
+        user.getRoles().forEach(role -> rolesDTOs.add(this.getRole(role.getId())));
 
-            rolePermissions.forEach(rolePermission -> {
-                PermissionDTO permissionDTO = new PermissionDTO(rolePermission.getId(), rolePermission.getName());
-                rolePermissionsDTOs.add(permissionDTO);
-            });
+        return rolesDTOs;
+    }
 
-            RoleDTO roleDTO = new RoleDTO(role.getId(), role.getName(), rolePermissionsDTOs);
-            rolesDTOs.add(roleDTO);
-        });
+    public String getUserRolesJson(Long userId) {
+        User user = this.getUser(userId, FetchPlans.USER_ROLES);
 
-        return rolesDTOs;
+        return this.roleCatalog.getRolesJson(user.getRoles().stream().map(Role::getId).toList());
     }
 
     public List<RoleDTO> syncUserRoles(Long userId, List<RoleDTO> roles) {
-        User user = this.getUser(userId);
+        List<Long> roleIds = roles.stream().map(RoleDTO::id).filter(Objects::nonNull).distinct().toList();
 
-        user.getRoles().clear();
+        List<Role> syncedRoles;
 
-        Set<Role> rolesToUpdate = new HashSet<Role>();
+        try {
+            syncedRoles = this.userRepository.syncAssociation(userId, FetchPlans.USER_ROLES, "roles", Role.class, roleIds);
+        } catch (AssociationTargetsNotFoundException e) {
+            throw new ResourceNotFound("Roles with ids " + e.getMissingIds() + " were not found.");
+        } catch (EntityNotFoundException e) {
+            throw new ResourceNotFound("Could not get roles because user was not found.");
+        }
 
-        roles.forEach(roleDTO -> {
-            Role role = this.roleRepository.getById(roleDTO.id());
+        this.principalCache.invalidate(userId);
+        this.permissionCache.invalidate(userId);
 
-            if (role != null) {
-                rolesToUpdate.add(role);
-            }
-        });
+        // tokens carrying the old permissions would keep authorizing until they expire
+        if (this.permissionClaims.isEnabled()) {
+            this.tokenRevocation.revokeAll(userId);
+        }
 
-        user.getRoles().addAll(rolesToUpdate);
+        List<RoleDTO> rolesDTOs = new ArrayList<>();
 
-        this.userRepository.update(userId, user);
+        syncedRoles.forEach(syncedRole -> rolesDTOs.add(this.getRole(syncedRole.getId())));
 
-        List<RoleDTO> rolesDTOs = new ArrayList<>();
+        return rolesDTOs;
+    }
+
+    // roles are served from the catalog, and only loaded with their permissions when created after its snapshot
+    private RoleDTO getRole(Long roleId) {
+        RoleDTO cached = this.roleCatalog.getRole(roleId);
 
-        rolesToUpdate.forEach(updatedRole -> {
-            Set<Permission> rolePermissions = updatedRole.getPermissions();
+        if (cached != null) {
+            return cached;
+        }
 
-            List<PermissionDTO> rolePermissionsDTOs = new ArrayList<>();
+        Role role = this.roleRepository.getById(roleId, FetchPlans.ROLE_PERMISSIONS);
 
-            rolePermissions.forEach(rolePermission -> {
-                PermissionDTO permissionDTO = new PermissionDTO(rolePermission.getId(), rolePermission.getName());
-                rolePermissionsDTOs.add(permissionDTO);
-            });
+        List<PermissionDTO> rolePermissionsDTOs = new ArrayList<>();
 
-            RoleDTO roleDTO = new RoleDTO(updatedRole.getId(), updatedRole.getName(), rolePermissionsDTOs);
-            rolesDTOs.add(roleDTO);
+        role.getPermissions().forEach(rolePermission -> {
+            PermissionDTO permissionDTO = new PermissionDTO(rolePermission.getId(), rolePermission.getName());
+            rolePermissionsDTOs.add(permissionDTO);
         });
 
-        return rolesDTOs;
+        return new RoleDTO(role.getId(), role.getName(), rolePermissionsDTOs);
     }
 
-    private User getUser(Long userId) {
-        User user = this.userRepository.getById(userId);
+    private User getUser(Long userId, String fetchPlan) {
+        User user = this.userRepository.getById(userId, fetchPlan);
 
         if (user == null) {
             throw new ResourceNotFound("Could not get roles because user was not found.");
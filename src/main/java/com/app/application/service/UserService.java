@@ -1,14 +1,19 @@
 package com.app.application.service;
 
 import com.app.application.dto.user.UpdatePasswordDTO;
+import com.app.application.dto.user.UserPageDTO;
 import com.app.application.dto.user.UserRequestDTO;
 import com.app.application.dto.user.UserResponseDTO;
 import com.app.application.dto.user.UserResponseWithPasswordDTO;
 import com.app.application.exception.ForbiddenException;
 import com.app.application.exception.IncorrectPasswordException;
 import com.app.application.exception.ResourceNotFound;
+import com.app.application.util.authentication.PrincipalCache;
+import com.app.application.util.export.ExportFormat;
+import com.app.application.util.export.UserExportWriter;
 import com.app.domain.exception.UserException;
 import com.app.infrastructure.persistence.criteria.Criteria;
+import com.app.infrastructure.persistence.criteria.OrderDirections;
 import com.app.infrastructure.persistence.entity.User;
 import com.app.infrastructure.persistence.exceptions.EntityNotFoundException;
 import com.app.infrastructure.persistence.repository.RepositoryInterface;
@@ -17,67 +22,87 @@ import com.app.infrastructure.security.hasher.HasherInterface;
 import com.app.infrastructure.storage.StorageInterface;
 
 import java.io.File;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
+import java.io.OutputStream;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Objects;
 
 public class UserService {
+    private static final DateTimeFormatter DELETED_AT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
     private final RepositoryInterface<User> userRepository;
     private final HasherInterface hasherInterface;
     private final AuthHolderInterface authHolder;
     private final StorageInterface storage;
+    private final PrincipalCache principalCache;
+    private final Clock clock;
+    private final UserExportWriter exportWriter;
+    private final int maxPageSize;
 
     public UserService(
             RepositoryInterface<User> userRepository,
             HasherInterface hasherInterface,
             AuthHolderInterface authHolder,
-            StorageInterface storage
+            StorageInterface storage,
+            PrincipalCache principalCache,
+            Clock clock,
+            UserExportWriter exportWriter,
+            int maxPageSize
     ) {
         this.userRepository = userRepository;
         this.hasherInterface = hasherInterface;
         this.authHolder = authHolder;
         this.storage = storage;
+        this.principalCache = principalCache;
+        this.clock = clock;
+        this.exportWriter = exportWriter;
+        this.maxPageSize = maxPageSize;
     }
 
     public UserResponseDTO get(Long id) {
-        User user = this.userRepository.getById(id);
+        UserResponseDTO user = this.userRepository.getProjectionById(id, UserResponseDTO.class);
 
         if (user == null) {
             throw new ResourceNotFound("User with id " + id + "not found.");
         }
 
-        return new UserResponseDTO(
-                user.getId(),
-                user.getName(),
-                user.getEmail(),
-                user.getPicture(),
-                user.getCreatedAt(),
-                user.getUpdatedAt(),
-                user.getDeletedAt()
-        );
+        return user;
+    }
+
+    public UserPageDTO getPage(Long cursor, Integer limit) {
+        int pageSize = limit != null ? Math.clamp(limit, 1, this.maxPageSize) : this.maxPageSize;
+
+        Criteria criteria = new Criteria();
+
+        if (cursor != null) {
+            criteria.after("id", cursor);
+        }
+
+        // the extra row tells whether another page follows without counting the table
+        criteria.order("id", OrderDirections.ASC).limit(pageSize + 1);
+
+        List<UserResponseDTO> users = this.userRepository.getProjectionsByFilter(criteria, UserResponseDTO.class);
+
+        if (users.size() <= pageSize) {
+            return new UserPageDTO(users, null);
+        }
+
+        List<UserResponseDTO> page = users.subList(0, pageSize);
+
+        return new UserPageDTO(page, page.getLast().id());
     }
 
-    public List<UserResponseDTO> getAll() {
-        List<User> users = this.userRepository.getAll();
-
-        List<UserResponseDTO> usersDTOs = new ArrayList<>();
-
-        users.forEach(user -> {
-            UserResponseDTO dto = new UserResponseDTO(
-                    user.getId(),
-                    user.getName(),
-                    user.getEmail(),
-                    user.getPicture(),
-                    user.getCreatedAt(),
-                    user.getUpdatedAt(),
-                    user.getDeletedAt()
-            );
-            usersDTOs.add(dto);
-        });
-
-        return usersDTOs;
+    public void export(ExportFormat format, OutputStream output) {
+        Criteria criteria = new Criteria();
+        criteria.order("id", OrderDirections.ASC);
+
+        this.userRepository.streamProjections(
+                criteria,
+                UserResponseDTO.class,
+                users -> this.exportWriter.write(users, format, output)
+        );
     }
 
     public UserResponseDTO create(UserRequestDTO userRequestDTO) {
@@ -136,6 +161,8 @@ public class UserService {
 
         User savedUser = userRepository.update(userId, userPersistenceEntity);
 
+        this.principalCache.invalidate(userId);
+
         return new UserResponseDTO(
                 savedUser.getId(),
                 savedUser.getName(),
@@ -168,6 +195,8 @@ public class UserService {
 
         User savedUser = userRepository.update(user.getId(), userToSave);
 
+        this.principalCache.invalidate(user.getId());
+
         return new UserResponseDTO(
                 savedUser.getId(),
                 savedUser.getName(),
@@ -179,6 +208,22 @@ public class UserService {
         );
     }
 
+    public void rehashPassword(Long userId, String currentHash, String rawPassword) {
+        User userToSave = userRepository.getById(userId);
+
+        // the password may have been changed since the login that triggered the rehash
+        if (!Objects.equals(userToSave.getPassword(), currentHash)) {
+            return;
+        }
+
+        String passwordSalt = hasherInterface.getSalt();
+        String hashedPassword = hasherInterface.getHash(rawPassword, passwordSalt);
+
+        userToSave.setPassword(hashedPassword);
+
+        userRepository.update(userId, userToSave);
+    }
+
     private User getUserByEmail(String email) {
         Criteria criteria = new Criteria();
         criteria.equals("email", email);
@@ -212,13 +257,13 @@ public class UserService {
         try {
             User userToSave = userRepository.getById(userId);
 
-            Date currentDate = new Date();
-            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSSSSS");
-            String formattedDate = dateFormat.format(currentDate);
+            String formattedDate = LocalDateTime.now(this.clock).format(DELETED_AT_FORMAT);
 
             userToSave.setDeletedAt(formattedDate);
 
             userRepository.update(userId, userToSave);
+
+            this.principalCache.invalidate(userId);
         } catch (EntityNotFoundException e) {
             return false;
         }
@@ -233,6 +278,8 @@ public class UserService {
            userToSave.setDeletedAt(null);
 
             userRepository.update(userId, userToSave);
+
+            this.principalCache.invalidate(userId);
         } catch (EntityNotFoundException e) {
             return false;
         }
@@ -243,6 +290,8 @@ public class UserService {
     public boolean deleteUser(Long userId) {
         try {
             userRepository.delete(userId);
+
+            this.principalCache.invalidate(userId);
         } catch (EntityNotFoundException e) {
             return false;
         }
@@ -254,22 +303,16 @@ public class UserService {
         Criteria criteria = new Criteria();
         criteria.equals("email", email);
 
-        List<User> matchingUsers = userRepository.getByFilter(criteria);
+        List<UserResponseWithPasswordDTO> matchingUsers = userRepository.getProjectionsByFilter(
+                criteria,
+                UserResponseWithPasswordDTO.class
+        );
 
         if (matchingUsers.isEmpty()) {
             throw new ResourceNotFound("User with provided email not found.");
         }
 
-        User user = matchingUsers.getFirst();
-
-        return new UserResponseWithPasswordDTO(
-                user.getId(),
-                user.getName(),
-                user.getEmail(),
-                user.getPassword(),
-                user.getCreatedAt(),
-                user.getUpdatedAt(),
-                user.getDeletedAt());
+        return matchingUsers.getFirst();
     }
 
     private void validateUniqueEmail(String email, Long userId) {
@@ -1,129 +1,109 @@
 package com.app.application.util.authentication;
 
-import com.app.application.dto.auth.JwtClaimDTO;
+import com.app.application.dto.auth.PrincipalDTO;
+import com.app.application.dto.auth.TokenClaimsDTO;
 import com.app.application.dto.user.UserResponseDTO;
 import com.app.application.exception.UnauthenticatedException;
 import com.app.application.service.UserService;
 import com.app.domain.entity.User;
-import com.app.infrastructure.cache.CacheInterface;
 import com.app.infrastructure.security.auth.AuthHolderInterface;
 import com.app.infrastructure.security.auth.JWTAuthInterface;
+import com.app.infrastructure.security.auth.exception.AuthException;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.List;
-import java.util.Set;
+import java.time.Clock;
 
 public class AuthInterceptorHandler {
     private final JWTAuthInterface jwtHandler;
-    private final CacheInterface cache;
+    private final TokenRevocationInterface tokenRevocation;
     private final UserService userService;
     private final AuthHolderInterface authHolder;
+    private final PrincipalCache principalCache;
+    private final Clock clock;
 
     public AuthInterceptorHandler(
             JWTAuthInterface jwtHandler,
-            CacheInterface cache,
+            TokenRevocationInterface tokenRevocation,
             UserService userService,
-            AuthHolderInterface authHolder
+            AuthHolderInterface authHolder,
+            PrincipalCache principalCache,
+            Clock clock
     ) {
         this.jwtHandler = jwtHandler;
-        this.cache = cache;
+        this.tokenRevocation = tokenRevocation;
         this.userService = userService;
         this.authHolder = authHolder;
+        this.principalCache = principalCache;
+        this.clock = clock;
     }
 
     public void handle(String authHeader) throws UnauthenticatedException {
-        String authToken = this.validateToken(authHeader);
+        String authToken = this.extractToken(authHeader);
 
-        this.checkTokenInBlackList(authToken);
+        TokenClaimsDTO claims = this.verifyToken(authToken);
 
-        List<JwtClaimDTO> claims = jwtHandler.getClaims();
+        this.checkTokenRevocation(authToken, claims);
 
-        this.checkTokenExpiration(authToken, claims);
+        this.checkTokenExpiration(claims);
 
         this.setAuthenticatedUser(claims, authToken);
     }
 
-    private String validateToken(String authHeader) {
+    private String extractToken(String authHeader) {
         if (authHeader == null || authHeader.isEmpty() || authHeader.isBlank()) {
              throw new UnauthenticatedException("Auth header is empty.");
         }
 
-        String authToken = authHeader.replace("Bearer ", "");
-
-        boolean tokenIsValid = jwtHandler.validateToken(authToken);
+        return authHeader.replace("Bearer ", "");
+    }
 
-        if (!tokenIsValid) {
+    private TokenClaimsDTO verifyToken(String authToken) {
+        try {
+            return jwtHandler.verifyToken(authToken);
+        } catch (AuthException exception) {
             throw new UnauthenticatedException("Token has invalid content.");
         }
-
-        return authToken;
     }
 
-    private void checkTokenInBlackList(String authToken) {
-        Set<String> blackListedTokens = cache.getList("auth_tokens_blacklist");
-
-        if (blackListedTokens.contains(authToken)) {
+    private void checkTokenRevocation(String authToken, TokenClaimsDTO claims) {
+        if (this.tokenRevocation.isRevoked(authToken, claims)) {
+            this.jwtHandler.invalidate(authToken);
             throw new UnauthenticatedException("Provided token is blacklisted.");
         }
     }
 
-    private void checkTokenExpiration(String authToken, List<JwtClaimDTO> claims) {
-        String expiresAt = null;
-
-        for (JwtClaimDTO claimDTO : claims) {
-            if ("expiresAt".equals(claimDTO.key()) && !claimDTO.value().isEmpty()) {
-                expiresAt = claimDTO.value();
-            }
-        }
+    private void checkTokenExpiration(TokenClaimsDTO claims) {
+        Long expiresAt = claims.expiresAt();
 
         if (expiresAt == null) {
             throw new UnauthenticatedException("Token's expiration not set.");
         }
 
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSSSSS");
-        Date currentDate = new Date();
-        String currentDateString = dateFormat.format(currentDate);
-
-        Date currentDateTime = null;
-        Date expiresAtDate = null;
-
-        try {
-            currentDateTime = dateFormat.parse(currentDateString);
-            expiresAtDate = dateFormat.parse(expiresAt);
-        } catch (ParseException exception) {
-            throw new UnauthenticatedException("Date parsing failed.");
-        }
-
-        if (currentDateTime.after(expiresAtDate)) {
+        if (this.clock.millis() >= expiresAt * 1000) {
             throw new UnauthenticatedException("Provided token is expired.");
         }
     }
 
-    private Long getUserId(List<JwtClaimDTO> claims) {
-        String userId = null;
-
-        for (JwtClaimDTO claimDTO : claims) {
-            if ("userId".equals(claimDTO.key())) {
-                userId = claimDTO.value();
-            }
-        }
+    private void setAuthenticatedUser(TokenClaimsDTO claims, String token) {
+        Long userId = claims.userId();
 
         if (userId == null) {
             throw new UnauthenticatedException("Token does not carry an user id.");
         }
 
-        return Long.valueOf(userId);
-    }
+        PrincipalDTO principal = this.principalCache.get(userId, this::loadPrincipal);
 
-    private void setAuthenticatedUser(List<JwtClaimDTO> claims, String token) {
-        Long userId = this.getUserId(claims);
+        if (principal.deleted()) {
+            throw new UnauthenticatedException("Token belongs to a deleted user.");
+        }
 
-        UserResponseDTO user = this.userService.get(userId);
+        User authUser = new User(principal.id(), principal.name(), principal.email());
 
-        User authUser = new User(user.id(), user.name(), user.email());
+        authHolder.setAuth(authUser, token, claims);
+    }
+
+    private PrincipalDTO loadPrincipal(Long userId) {
+        UserResponseDTO user = this.userService.get(userId);
 
-        authHolder.setAuth(authUser, token);
+        return new PrincipalDTO(user.id(), user.name(), user.email(), user.deletedAt() != null);
     }
 }
@@ -0,0 +1,186 @@
+package com.app.application.util.authentication;
+
+import com.app.application.exception.TooManyLoginAttemptsException;
+import com.app.infrastructure.cache.CacheInterface;
+import com.app.infrastructure.cache.exception.CacheException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class LoginThrottle {
+    private static final String KEY_PREFIX = "login_failures:";
+
+    private static final String COUNT_SCRIPT = """
+            local counts = {}
+            for i, key in ipairs(KEYS) do
+                counts[i] = tonumber(redis.call('GET', key) or '0')
+            end
+            return counts
+            """;
+
+    private static final String RECORD_SCRIPT = """
+            for _, key in ipairs(KEYS) do
+                redis.call('INCR', key)
+                redis.call('EXPIRE', key, ARGV[1])
+            end
+            return 0
+            """;
+
+    private final CacheInterface cache;
+    private final Clock clock;
+    private final long windowMillis;
+    private final int maxAccountFailures;
+    private final int maxAddressFailures;
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, LocalWindow> localWindows = new ConcurrentHashMap<>();
+
+    public LoginThrottle(
+            CacheInterface cache,
+            Clock clock,
+            Duration window,
+            int maxAccountFailures,
+            int maxAddressFailures,
+            int maxEntries
+    ) {
+        this.cache = cache;
+        this.clock = clock;
+        this.windowMillis = window.toMillis();
+        this.maxAccountFailures = maxAccountFailures;
+        this.maxAddressFailures = maxAddressFailures;
+        this.maxEntries = maxEntries;
+    }
+
+    // failures are counted in fixed windows and the previous one is weighted by how much of it still
+    // overlaps the sliding window, which keeps every check at a single round trip of plain counters
+    public void check(String email, String address) {
+        long now = this.clock.millis();
+        long window = now / this.windowMillis;
+        double previousWeight = 1 - (double) (now % this.windowMillis) / this.windowMillis;
+
+        List<String> scopes = this.getScopes(email, address);
+
+        // this node's own count is a lower bound of the shared one, so floods are turned away without asking redis
+        for (String scope : scopes) {
+            LocalWindow local = this.localWindows.get(scope);
+
+            if (local != null && this.isOverLimit(scope, local.estimate(window, previousWeight))) {
+                throw this.rejection(now);
+            }
+        }
+
+        List<String> keys = new ArrayList<>();
+        scopes.forEach(scope -> {
+            keys.add(this.getKey(scope, window));
+            keys.add(this.getKey(scope, window - 1));
+        });
+
+        List<?> counts;
+
+        try {
+            counts = (List<?>) this.cache.runScript(COUNT_SCRIPT, keys, List.of());
+        } catch (CacheException e) {
+            // the local counts checked above are all there is until redis answers again, a timed out call included
+            return;
+        }
+
+        for (int i = 0; i < scopes.size(); i++) {
+            double current = ((Number) counts.get(i * 2)).doubleValue();
+            double previous = ((Number) counts.get(i * 2 + 1)).doubleValue();
+
+            if (this.isOverLimit(scopes.get(i), current + previous * previousWeight)) {
+                throw this.rejection(now);
+            }
+        }
+    }
+
+    public void recordFailure(String email, String address) {
+        long window = this.clock.millis() / this.windowMillis;
+
+        List<String> scopes = this.getScopes(email, address);
+        scopes.forEach(scope -> this.getLocalWindow(scope).increment(window));
+
+        try {
+            this.cache.runScript(
+                    RECORD_SCRIPT,
+                    scopes.stream().map(scope -> this.getKey(scope, window)).toList(),
+                    List.of(String.valueOf(this.windowMillis * 2 / 1000))
+            );
+        } catch (CacheException e) {
+            // the failure is still counted locally
+        }
+    }
+
+    private List<String> getScopes(String email, String address) {
+        List<String> scopes = new ArrayList<>();
+        scopes.add("account:" + (email != null ? email.trim().toLowerCase(Locale.ROOT) : ""));
+
+        if (address != null) {
+            scopes.add("address:" + address);
+        }
+
+        return scopes;
+    }
+
+    private boolean isOverLimit(String scope, double failures) {
+        int limit = scope.startsWith("account:") ? this.maxAccountFailures : this.maxAddressFailures;
+
+        return failures >= limit;
+    }
+
+    private TooManyLoginAttemptsException rejection(long now) {
+        long retryAfterMillis = this.windowMillis - now % this.windowMillis;
+
+        return new TooManyLoginAttemptsException(
+                "Too many failed login attempts, retry later.",
+                Math.max(1, (retryAfterMillis + 999) / 1000)
+        );
+    }
+
+    private String getKey(String scope, long window) {
+        return KEY_PREFIX + scope + ":" + window;
+    }
+
+    private LocalWindow getLocalWindow(String scope) {
+        if (this.localWindows.size() >= this.maxEntries && !this.localWindows.containsKey(scope)) {
+            Iterator<String> iterator = this.localWindows.keySet().iterator();
+
+            if (iterator.hasNext()) {
+                this.localWindows.remove(iterator.next());
+            }
+        }
+
+        return this.localWindows.computeIfAbsent(scope, key -> new LocalWindow());
+    }
+
+    private static class LocalWindow {
+        private long window;
+        private long current;
+        private long previous;
+
+        synchronized void increment(long window) {
+            this.roll(window);
+            this.current++;
+        }
+
+        synchronized double estimate(long window, double previousWeight) {
+            this.roll(window);
+
+            return this.current + this.previous * previousWeight;
+        }
+
+        private void roll(long window) {
+            if (window == this.window) {
+                return;
+            }
+
+            this.previous = window == this.window + 1 ? this.current : 0;
+            this.current = 0;
+            this.window = window;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.app.application.util.authentication;
+
+import com.app.application.dto.auth.PrincipalDTO;
+import com.app.infrastructure.cache.CacheInterface;
+import com.app.infrastructure.cache.InvalidatingCache;
+
+import java.time.Clock;
+
+public class PrincipalCache extends InvalidatingCache<PrincipalDTO> {
+    private static final String INVALIDATION_CHANNEL = "auth_principal_invalidations";
+
+    public PrincipalCache(CacheInterface cache, Clock clock, long ttlMillis, int maxEntries) {
+        super(cache, INVALIDATION_CHANNEL, clock, ttlMillis, maxEntries);
+    }
+}
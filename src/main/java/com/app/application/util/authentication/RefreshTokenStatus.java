@@ -0,0 +1,22 @@
+package com.app.application.util.authentication;
+
+import com.app.infrastructure.security.auth.exception.AuthException;
+
+final class RefreshTokenStatus {
+    // issue scripts answer with 1 when the tokens were stored, 0 when the user has no refresh token
+    // and -1 when the presented one is not the stored one
+    static void verify(Object status) {
+        long code = ((Number) status).longValue();
+
+        if (code == 0) {
+            throw new AuthException("User does not have a refresh token stored.");
+        }
+
+        if (code < 0) {
+            throw new AuthException("Invalid refresh token.");
+        }
+    }
+
+    private RefreshTokenStatus() {
+    }
+}
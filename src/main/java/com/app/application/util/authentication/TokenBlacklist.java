@@ -0,0 +1,321 @@
+package com.app.application.util.authentication;
+
+import com.app.application.dto.auth.IssuedTokensDTO;
+import com.app.application.dto.auth.JwtClaimDTO;
+import com.app.application.dto.auth.TokenClaimsDTO;
+import com.app.infrastructure.cache.BloomFilter;
+import com.app.infrastructure.cache.CacheInterface;
+import com.app.infrastructure.cache.exception.CacheException;
+import com.app.infrastructure.security.auth.JWTAuthInterface;
+import com.app.infrastructure.security.auth.TokenFingerprint;
+import com.app.infrastructure.security.auth.exception.AuthException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class TokenBlacklist implements TokenRevocationInterface {
+    private static final String REVOKED_TOKEN_KEY_PREFIX = "revoked_token:";
+    private static final String SESSION_KEY_PREFIX = "auth_session:";
+    private static final String REVOCATION_LOG_KEY = "auth_tokens_revocation_log";
+    private static final String LEGACY_BLACKLIST_KEY = "auth_tokens_blacklist";
+
+    private static final int MIGRATION_BATCH_SIZE = 500;
+
+    // checks the presented refresh token when rotating, stores the new pair in the user's session hash and
+    // revokes the access token it replaces, all in a single round trip. tokens are kept as fingerprints, the
+    // access one as "<fingerprint>:<expiresAt>" so the script can revoke it without hashing. sessions stored
+    // before the hash existed are read from the legacy keys, where the refresh token is kept whole. those keys
+    // are only dropped once the presented refresh token matched, so a stale one cannot end the session
+    private static final String ISSUE_SCRIPT = """
+            local previous = redis.call('HGET', KEYS[1], 'access')
+            local refresh = redis.call('HGET', KEYS[1], 'refresh')
+            local expected = ARGV[7]
+            local legacy = false
+            if not previous and not refresh then
+                previous = redis.call('GET', KEYS[3])
+                refresh = redis.call('GET', KEYS[4])
+                expected = ARGV[8]
+                legacy = previous or refresh
+            end
+            if ARGV[7] ~= '' then
+                if not refresh then
+                    return {0}
+                end
+                if refresh ~= expected then
+                    return {-1}
+                end
+            end
+            if legacy then
+                redis.call('DEL', KEYS[3], KEYS[4])
+            end
+            redis.call('HSET', KEYS[1], 'access', ARGV[1], 'refresh', ARGV[2])
+            redis.call('EXPIRE', KEYS[1], ARGV[3])
+            if previous then
+                local separator = string.find(previous, ':', 1, true)
+                if separator then
+                    local ttl = tonumber(string.sub(previous, separator + 1)) - tonumber(ARGV[4])
+                    if ttl > 0 then
+                        local fingerprint = string.sub(previous, 1, separator - 1)
+                        redis.call('SET', ARGV[6] .. fingerprint, '1', 'EX', ttl)
+                        redis.call('ZADD', KEYS[2], ARGV[5], fingerprint)
+                    end
+                end
+            end
+            return {1, previous}
+            """;
+
+    // revokes the access token in the user's session and drops the session, so the refresh token that came
+    // with it can no longer be rotated either
+    private static final String REVOKE_SESSION_SCRIPT = """
+            local previous = redis.call('HGET', KEYS[1], 'access') or redis.call('GET', KEYS[3])
+            redis.call('DEL', KEYS[1], KEYS[3], KEYS[4])
+            if previous then
+                local separator = string.find(previous, ':', 1, true)
+                if separator then
+                    local ttl = tonumber(string.sub(previous, separator + 1)) - tonumber(ARGV[1])
+                    if ttl > 0 then
+                        local fingerprint = string.sub(previous, 1, separator - 1)
+                        redis.call('SET', ARGV[3] .. fingerprint, '1', 'EX', ttl)
+                        redis.call('ZADD', KEYS[2], ARGV[2], fingerprint)
+                    end
+                end
+            end
+            return {1, previous}
+            """;
+
+    // revocations are logged with the revoking node's clock, so every sync re-reads a small
+    // window before the previous one to tolerate clock skew between nodes
+    private static final long SYNC_OVERLAP_MILLIS = 5000;
+
+    private final CacheInterface cache;
+    private final JWTAuthInterface jwtHandler;
+    private final Supplier<BloomFilter> filterFactory;
+    private final Clock clock;
+    private final long retentionMillis;
+
+    private volatile BloomFilter filter;
+    private volatile boolean synced = false;
+    private volatile boolean legacyDrained = false;
+    private long lastSyncStartedAt = 0;
+    private long lastRebuiltAt = 0;
+
+    public TokenBlacklist(
+            CacheInterface cache,
+            JWTAuthInterface jwtHandler,
+            Supplier<BloomFilter> filterFactory,
+            Clock clock,
+            Duration maxTokenLifetime
+    ) {
+        this.cache = cache;
+        this.jwtHandler = jwtHandler;
+        this.filterFactory = filterFactory;
+        this.clock = clock;
+        this.retentionMillis = maxTokenLifetime.toMillis();
+        this.filter = filterFactory.get();
+    }
+
+    @Override
+    public IssuedTokensDTO issue(Long userId, Function<List<JwtClaimDTO>, IssuedTokensDTO> signer) {
+        return this.store(userId, null, signer);
+    }
+
+    @Override
+    public IssuedTokensDTO rotate(Long userId, String refreshToken, Function<List<JwtClaimDTO>, IssuedTokensDTO> signer) {
+        return this.store(userId, refreshToken, signer);
+    }
+
+    @Override
+    public void revoke(Long userId, String token) {
+        this.revoke(token);
+    }
+
+    @Override
+    public void revokeAll(Long userId) {
+        long now = this.clock.millis();
+
+        // issuing revokes the token it replaces, so the one in the session is the only access token left valid
+        List<?> result = (List<?>) this.cache.runScript(
+                REVOKE_SESSION_SCRIPT,
+                this.getSessionKeys(userId),
+                List.of(String.valueOf(now / 1000), String.valueOf(now), REVOKED_TOKEN_KEY_PREFIX)
+        );
+
+        if (result.size() > 1 && result.get(1) instanceof String previousToken) {
+            this.forgetPrevious(previousToken);
+        }
+    }
+
+    @Override
+    public boolean isRevoked(String token, TokenClaimsDTO claims) {
+        return this.isRevoked(token);
+    }
+
+    public void revoke(String token) {
+        TokenClaimsDTO claims;
+
+        try {
+            claims = this.jwtHandler.verifyToken(token);
+        } catch (AuthException exception) {
+            // expired or otherwise invalid tokens are rejected before the blacklist is ever checked
+            return;
+        }
+
+        if (claims.expiresAt() == null) {
+            return;
+        }
+
+        long now = this.clock.millis();
+        long remainingSeconds = claims.expiresAt() - now / 1000;
+
+        if (remainingSeconds <= 0) {
+            return;
+        }
+
+        byte[] digest = TokenFingerprint.digest(token);
+        String fingerprint = TokenFingerprint.encode(digest);
+
+        this.cache.set(REVOKED_TOKEN_KEY_PREFIX + fingerprint, "1", remainingSeconds);
+        this.cache.addToSortedSet(REVOCATION_LOG_KEY, now, fingerprint);
+
+        this.filter.put(digest);
+    }
+
+    public boolean isRevoked(String token) {
+        byte[] digest = TokenFingerprint.digest(token);
+
+        if (this.synced && !this.filter.mightContain(digest)) {
+            return false;
+        }
+
+        if (this.cache.get(REVOKED_TOKEN_KEY_PREFIX + TokenFingerprint.encode(digest)) != null) {
+            return true;
+        }
+
+        return !this.legacyDrained && this.cache.isMember(LEGACY_BLACKLIST_KEY, token);
+    }
+
+    public synchronized void sync() {
+        long syncStartedAt = this.clock.millis();
+
+        // the filter only ever grows, so it is rebuilt from the pruned log once every token it
+        // could hold has expired
+        boolean rebuild = !this.synced || syncStartedAt - this.lastRebuiltAt >= this.retentionMillis;
+
+        try {
+            BloomFilter target = rebuild ? this.filterFactory.get() : this.filter;
+
+            if (rebuild && !this.legacyDrained) {
+                this.cache.getList(LEGACY_BLACKLIST_KEY).forEach(token -> target.put(TokenFingerprint.digest(token)));
+            }
+
+            double minScore = rebuild ? Double.NEGATIVE_INFINITY : this.lastSyncStartedAt - SYNC_OVERLAP_MILLIS;
+
+            this.cache.getSortedSetRange(REVOCATION_LOG_KEY, minScore, Double.POSITIVE_INFINITY)
+                    .forEach(fingerprint -> target.put(TokenFingerprint.decode(fingerprint)));
+
+            if (rebuild) {
+                this.cache.removeSortedSetRange(
+                        REVOCATION_LOG_KEY,
+                        Double.NEGATIVE_INFINITY,
+                        syncStartedAt - this.retentionMillis - SYNC_OVERLAP_MILLIS
+                );
+
+                this.filter = target;
+                this.lastRebuiltAt = syncStartedAt;
+            }
+        } catch (CacheException | IllegalArgumentException e) {
+            // until a sync succeeds every check keeps falling back to the exact lookup in cache
+            return;
+        }
+
+        this.lastSyncStartedAt = syncStartedAt;
+        this.synced = true;
+    }
+
+    public void migrateLegacyBlacklist() {
+        if (this.legacyDrained) {
+            return;
+        }
+
+        try {
+            List<String> tokens = this.cache.getListSample(LEGACY_BLACKLIST_KEY, MIGRATION_BATCH_SIZE);
+
+            if (tokens.isEmpty()) {
+                this.legacyDrained = true;
+                return;
+            }
+
+            // tokens are only dropped from the legacy set once their per-token key exists,
+            // so concurrent checks on any node never miss them in between
+            tokens.forEach(this::revoke);
+            this.cache.removeFromList(LEGACY_BLACKLIST_KEY, tokens);
+        } catch (CacheException e) {
+            // the batch is picked up again on the next run
+        }
+    }
+
+    private IssuedTokensDTO store(Long userId, String expectedRefreshToken, Function<List<JwtClaimDTO>, IssuedTokensDTO> signer) {
+        IssuedTokensDTO tokens = signer.apply(List.of());
+
+        long now = this.clock.millis();
+
+        List<?> result = (List<?>) this.cache.runScript(
+                ISSUE_SCRIPT,
+                this.getSessionKeys(userId),
+                List.of(
+                        TokenFingerprint.of(tokens.accessToken()) + ":" + tokens.accessExpiresAt(),
+                        TokenFingerprint.of(tokens.refreshToken()),
+                        String.valueOf(this.getTtl(tokens.refreshExpiresAt(), now)),
+                        String.valueOf(now / 1000),
+                        String.valueOf(now),
+                        REVOKED_TOKEN_KEY_PREFIX,
+                        expectedRefreshToken != null ? TokenFingerprint.of(expectedRefreshToken) : "",
+                        expectedRefreshToken != null ? expectedRefreshToken : ""
+                )
+        );
+
+        RefreshTokenStatus.verify(result.getFirst());
+
+        if (result.size() > 1 && result.get(1) instanceof String previousToken) {
+            this.forgetPrevious(previousToken);
+        }
+
+        return tokens;
+    }
+
+    private void forgetPrevious(String previous) {
+        int separator = previous.indexOf(':');
+
+        if (separator < 0) {
+            // values stored before issuance was scripted hold the whole token, which needs a regular revocation
+            this.revoke(previous);
+            return;
+        }
+
+        this.filter.put(TokenFingerprint.decode(previous.substring(0, separator)));
+    }
+
+    private List<String> getSessionKeys(Long userId) {
+        return List.of(
+                SESSION_KEY_PREFIX + userId,
+                REVOCATION_LOG_KEY,
+                userId + "_current_token",
+                userId + "_refresh_token"
+        );
+    }
+
+    private long getTtl(long expiresAt, long now) {
+        return Math.max(1, expiresAt - now / 1000);
+    }
+
+    public boolean isSynced() {
+        return this.synced;
+    }
+
+    public boolean isLegacyDrained() {
+        return this.legacyDrained;
+    }
+}
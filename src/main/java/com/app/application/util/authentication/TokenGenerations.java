@@ -0,0 +1,172 @@
+package com.app.application.util.authentication;
+
+import com.app.application.dto.auth.IssuedTokensDTO;
+import com.app.application.dto.auth.JwtClaimDTO;
+import com.app.application.dto.auth.TokenClaimsDTO;
+import com.app.infrastructure.cache.CacheInterface;
+import com.app.infrastructure.cache.exception.CacheException;
+import com.app.infrastructure.security.auth.TokenFingerprint;
+
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+public class TokenGenerations implements TokenRevocationInterface {
+    private static final String GENERATION_KEY_PREFIX = "auth_token_generation:";
+    private static final String SESSION_KEY_PREFIX = "auth_session:";
+    private static final String CHANGES_CHANNEL = "auth_token_generation_changes";
+    private static final int MAX_ISSUE_ATTEMPTS = 5;
+
+    // bumps the generation only if nobody else did since the tokens were signed, so concurrent logins
+    // of a user never end up holding tokens of the same generation. when rotating, the presented refresh
+    // token is checked first against the fingerprint in the session hash, or whole against the legacy key
+    private static final String ISSUE_SCRIPT = """
+            if ARGV[7] ~= '' then
+                local refresh = redis.call('HGET', KEYS[2], 'refresh')
+                local expected = ARGV[7]
+                if not refresh then
+                    refresh = redis.call('GET', KEYS[3])
+                    expected = ARGV[8]
+                end
+                if not refresh then
+                    return {0}
+                end
+                if refresh ~= expected then
+                    return {-1}
+                end
+            end
+            local stored = tonumber(redis.call('GET', KEYS[1]) or '0')
+            if stored ~= tonumber(ARGV[1]) then
+                return {1, stored}
+            end
+            redis.call('SET', KEYS[1], ARGV[2])
+            redis.call('HSET', KEYS[2], 'refresh', ARGV[3])
+            redis.call('EXPIRE', KEYS[2], ARGV[4])
+            redis.call('DEL', KEYS[3])
+            redis.call('PUBLISH', ARGV[5], ARGV[6])
+            return {1, tonumber(ARGV[2])}
+            """;
+
+    private final CacheInterface cache;
+    private final Clock clock;
+    private final int maxEntries;
+    private final ConcurrentHashMap<Long, Long> generations = new ConcurrentHashMap<>();
+
+    public TokenGenerations(CacheInterface cache, Clock clock, int maxEntries) {
+        this.cache = cache;
+        this.clock = clock;
+        this.maxEntries = maxEntries;
+    }
+
+    public void listen() {
+        this.cache.subscribe(CHANGES_CHANNEL, this.generations::clear, this::apply);
+    }
+
+    @Override
+    public IssuedTokensDTO issue(Long userId, Function<List<JwtClaimDTO>, IssuedTokensDTO> signer) {
+        return this.store(userId, null, signer);
+    }
+
+    @Override
+    public IssuedTokensDTO rotate(Long userId, String refreshToken, Function<List<JwtClaimDTO>, IssuedTokensDTO> signer) {
+        return this.store(userId, refreshToken, signer);
+    }
+
+    @Override
+    public void revoke(Long userId, String token) {
+        this.revokeAll(userId);
+    }
+
+    @Override
+    public void revokeAll(Long userId) {
+        long generation = this.cache.increment(GENERATION_KEY_PREFIX + userId);
+
+        this.store(userId, generation);
+
+        // local values never expire on their own, so a failed publish has to surface to the caller
+        this.cache.publish(CHANGES_CHANNEL, userId + ":" + generation);
+    }
+
+    @Override
+    public boolean isRevoked(String token, TokenClaimsDTO claims) {
+        // tokens issued before generations were embedded cannot be told apart, so they are treated as revoked
+        if (claims.userId() == null || claims.generation() == null) {
+            return true;
+        }
+
+        return claims.generation() < this.get(claims.userId());
+    }
+
+    private IssuedTokensDTO store(Long userId, String expectedRefreshToken, Function<List<JwtClaimDTO>, IssuedTokensDTO> signer) {
+        for (int attempt = 0; attempt < MAX_ISSUE_ATTEMPTS; attempt++) {
+            long current = this.get(userId);
+            long next = current + 1;
+
+            IssuedTokensDTO tokens = signer.apply(List.of(new JwtClaimDTO("generation", String.valueOf(next))));
+
+            List<?> result = (List<?>) this.cache.runScript(
+                    ISSUE_SCRIPT,
+                    List.of(GENERATION_KEY_PREFIX + userId, SESSION_KEY_PREFIX + userId, userId + "_refresh_token"),
+                    List.of(
+                            String.valueOf(current),
+                            String.valueOf(next),
+                            TokenFingerprint.of(tokens.refreshToken()),
+                            String.valueOf(Math.max(1, tokens.refreshExpiresAt() - this.clock.millis() / 1000)),
+                            CHANGES_CHANNEL,
+                            userId + ":" + next,
+                            expectedRefreshToken != null ? TokenFingerprint.of(expectedRefreshToken) : "",
+                            expectedRefreshToken != null ? expectedRefreshToken : ""
+                    )
+            );
+
+            RefreshTokenStatus.verify(result.getFirst());
+
+            long storedGeneration = ((Number) result.get(1)).longValue();
+
+            this.store(userId, storedGeneration);
+
+            if (storedGeneration == next) {
+                return tokens;
+            }
+        }
+
+        throw new CacheException("Failed trying to issue tokens: generation kept changing.");
+    }
+
+    public long get(Long userId) {
+        Long cached = this.generations.get(userId);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        String stored = this.cache.get(GENERATION_KEY_PREFIX + userId);
+
+        return this.store(userId, stored != null ? Long.parseLong(stored) : 0);
+    }
+
+    private long store(Long userId, long generation) {
+        if (this.generations.size() >= this.maxEntries && !this.generations.containsKey(userId)) {
+            Iterator<Long> iterator = this.generations.keySet().iterator();
+
+            if (iterator.hasNext()) {
+                this.generations.remove(iterator.next());
+            }
+        }
+
+        // generations only ever grow, so a load that raced with a bump can never overwrite it
+        return this.generations.merge(userId, generation, Math::max);
+    }
+
+    private void apply(String message) {
+        String[] parts = message.split(":");
+
+        try {
+            this.store(Long.valueOf(parts[0]), Long.parseLong(parts[1]));
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            // ignore messages that do not carry a user id and generation
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.app.application.util.authentication;
+
+import com.app.application.dto.auth.IssuedTokensDTO;
+import com.app.application.dto.auth.JwtClaimDTO;
+import com.app.application.dto.auth.TokenClaimsDTO;
+
+import java.util.List;
+import java.util.function.Function;
+
+public interface TokenRevocationInterface {
+    IssuedTokensDTO issue(Long userId, Function<List<JwtClaimDTO>, IssuedTokensDTO> signer);
+    IssuedTokensDTO rotate(Long userId, String refreshToken, Function<List<JwtClaimDTO>, IssuedTokensDTO> signer);
+    void revoke(Long userId, String token);
+    void revokeAll(Long userId);
+    boolean isRevoked(String token, TokenClaimsDTO claims);
+}
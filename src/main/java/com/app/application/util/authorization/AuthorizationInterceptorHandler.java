@@ -1,40 +1,51 @@
 package com.app.application.util.authorization;
 
-import com.app.application.dto.authorization.PermissionDTO;
-import com.app.application.dto.authorization.RoleDTO;
 import com.app.application.service.UserRoleService;
 import com.app.domain.entity.User;
 import com.app.infrastructure.security.auth.AuthHolderInterface;
 
-import java.util.List;
+import java.util.function.Function;
 
 public class AuthorizationInterceptorHandler {
     private final AuthHolderInterface authHolder;
     private final UserRoleService userRoleService;
-
-    public AuthorizationInterceptorHandler(AuthHolderInterface authHolder, UserRoleService userRoleService) {
+    private final PermissionRegistry permissionRegistry;
+    private final PermissionCache permissionCache;
+    private final PermissionClaims permissionClaims;
+    private final Function<Long, UserPermissions> loader = this::loadPermissions;
+
+    public AuthorizationInterceptorHandler(
+            AuthHolderInterface authHolder,
+            UserRoleService userRoleService,
+            PermissionRegistry permissionRegistry,
+            PermissionCache permissionCache,
+            PermissionClaims permissionClaims
+    ) {
         this.authHolder = authHolder;
         this.userRoleService = userRoleService;
+        this.permissionRegistry = permissionRegistry;
+        this.permissionCache = permissionCache;
+        this.permissionClaims = permissionClaims;
     }
 
     public boolean handle(String action) {
-        User user = this.authHolder.getUser();
+        return this.handle(this.permissionRegistry.getId(action));
+    }
 
-        List<RoleDTO> roles = this.userRoleService.getUserRoles(user.getId());
+    public boolean handle(int permissionId) {
+        UserPermissions permissions = this.permissionClaims.fromClaims(this.authHolder.getClaims());
 
-        boolean isSuper = roles.stream()
-                .anyMatch(role -> RolesEnum.SUPER.toString().equalsIgnoreCase(role.name()));
+        // tokens issued before claims were enabled carry no permissions, so those are still looked up
+        if (permissions == null) {
+            User user = this.authHolder.getUser();
 
-        if (isSuper) {
-            return true;
+            permissions = this.permissionCache.get(user.getId(), this.loader);
         }
 
-        List<String> uniquePermissionNames = roles.stream()
-                .flatMap(role -> role.permissions().stream())
-                .map(PermissionDTO::name)
-                .distinct()
-                .toList();
+        return permissions.allows(permissionId);
+    }
 
-        return uniquePermissionNames.contains(action);
+    private UserPermissions loadPermissions(Long userId) {
+        return UserPermissions.of(this.userRoleService.getUserRoles(userId), this.permissionRegistry);
     }
 }
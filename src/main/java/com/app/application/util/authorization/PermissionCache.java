@@ -0,0 +1,14 @@
+package com.app.application.util.authorization;
+
+import com.app.infrastructure.cache.CacheInterface;
+import com.app.infrastructure.cache.InvalidatingCache;
+
+import java.time.Clock;
+
+public class PermissionCache extends InvalidatingCache<UserPermissions> {
+    private static final String INVALIDATION_CHANNEL = "auth_permission_invalidations";
+
+    public PermissionCache(CacheInterface cache, Clock clock, long ttlMillis, int maxEntries) {
+        super(cache, INVALIDATION_CHANNEL, clock, ttlMillis, maxEntries);
+    }
+}
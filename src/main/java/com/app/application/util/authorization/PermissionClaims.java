@@ -0,0 +1,46 @@
+package com.app.application.util.authorization;
+
+import com.app.application.dto.auth.JwtClaimDTO;
+import com.app.application.dto.auth.TokenClaimsDTO;
+import com.app.application.dto.authorization.RoleDTO;
+
+import java.util.List;
+
+public class PermissionClaims {
+    public static final String CLAIM = "permissions";
+
+    private final boolean enabled;
+    private final PermissionRegistry permissionRegistry;
+
+    // when enabled, access tokens carry the user's permissions and are authorized from them alone, so a
+    // change of roles only takes effect once the tokens issued before it are revoked
+    public PermissionClaims(boolean enabled, PermissionRegistry permissionRegistry) {
+        this.enabled = enabled;
+        this.permissionRegistry = permissionRegistry;
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public List<JwtClaimDTO> toClaims(List<RoleDTO> roles) {
+        if (!this.enabled) {
+            return List.of();
+        }
+
+        return List.of(new JwtClaimDTO(CLAIM, UserPermissions.of(roles, this.permissionRegistry).encode()));
+    }
+
+    public UserPermissions fromClaims(TokenClaimsDTO claims) {
+        if (!this.enabled || claims == null || claims.permissions() == null) {
+            return null;
+        }
+
+        try {
+            return UserPermissions.decode(claims.permissions());
+        } catch (IllegalArgumentException e) {
+            // a claim that cannot be read is ignored and the permissions are looked up instead
+            return null;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.app.application.util.authorization;
+
+import com.app.application.dto.authorization.PermissionDTO;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class PermissionRegistry {
+    public static final int UNKNOWN = -1;
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+    // permissions are indexed by their database id rather than an id handed out by this node, so bitsets
+    // built on one node, or embedded in a token, mean the same thing on every other one
+    public PermissionRegistry(Collection<PermissionDTO> permissions) {
+        this.registerAll(permissions);
+    }
+
+    // called with every permission the role catalog loads, so ones created since startup are known
+    // before any role carrying them is read
+    public void registerAll(Collection<PermissionDTO> permissions) {
+        permissions.forEach(this::register);
+    }
+
+    public int register(PermissionDTO permission) {
+        if (permission.id() == null || permission.id() < 0 || permission.id() > Integer.MAX_VALUE) {
+            return UNKNOWN;
+        }
+
+        int id = permission.id().intValue();
+
+        this.ids.put(permission.name(), id);
+
+        return id;
+    }
+
+    public int getId(String permissionName) {
+        Integer id = this.ids.get(permissionName);
+
+        return id != null ? id : UNKNOWN;
+    }
+}
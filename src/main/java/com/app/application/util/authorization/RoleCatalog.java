@@ -0,0 +1,201 @@
+package com.app.application.util.authorization;
+
+import com.app.application.dto.authorization.PermissionDTO;
+import com.app.application.dto.authorization.RoleDTO;
+import com.app.infrastructure.cache.CacheInterface;
+import com.app.infrastructure.cache.exception.CacheException;
+import com.app.infrastructure.persistence.entity.Permission;
+import com.app.infrastructure.persistence.entity.Role;
+import com.app.infrastructure.persistence.exceptions.EntityNotFoundException;
+import com.app.infrastructure.persistence.repository.FetchPlans;
+import com.app.infrastructure.persistence.repository.RepositoryInterface;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+public class RoleCatalog {
+    private static final String VERSION_KEY = "role_catalog_version";
+    private static final long UNKNOWN_VERSION = -1;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final RepositoryInterface<Role> roleRepository;
+    private final RepositoryInterface<Permission> permissionRepository;
+    private final CacheInterface cache;
+    private final List<Consumer<List<PermissionDTO>>> permissionListeners = new CopyOnWriteArrayList<>();
+
+    // every read goes through a single volatile snapshot, which is replaced whole and never changed after
+    private volatile Snapshot snapshot;
+
+    private record Snapshot(
+            long version,
+            List<RoleDTO> roles,
+            List<PermissionDTO> permissions,
+            Map<Long, RoleDTO> rolesById,
+            Map<Long, PermissionDTO> permissionsById,
+            Map<Long, String> rolesJson
+    ) {
+    }
+
+    public RoleCatalog(
+            RepositoryInterface<Role> roleRepository,
+            RepositoryInterface<Permission> permissionRepository,
+            CacheInterface cache
+    ) {
+        this.roleRepository = roleRepository;
+        this.permissionRepository = permissionRepository;
+        this.cache = cache;
+    }
+
+    // the app never writes to the roles, permissions or roles_permissions tables, so the version is bumped by
+    // hand (INCR role_catalog_version) after editing them. reloads the tables only when the shared version moved
+    // since the current snapshot was taken. a load that races with a write is simply repeated on the next call,
+    // as the version it stored is already stale
+    public synchronized void refresh() {
+        long version;
+
+        try {
+            String stored = this.cache.get(VERSION_KEY);
+            version = stored != null ? Long.parseLong(stored) : 0;
+        } catch (CacheException | NumberFormatException e) {
+            if (this.snapshot != null) {
+                return;
+            }
+
+            version = UNKNOWN_VERSION;
+        }
+
+        if (this.snapshot != null && this.snapshot.version() == version) {
+            return;
+        }
+
+        try {
+            this.snapshot = this.load(version);
+        } catch (RuntimeException e) {
+            // the previous snapshot keeps being served until a reload succeeds
+            if (this.snapshot == null) {
+                throw e;
+            }
+
+            return;
+        }
+
+        this.permissionListeners.forEach(listener -> listener.accept(this.snapshot.permissions()));
+    }
+
+    public void onPermissionsLoaded(Consumer<List<PermissionDTO>> listener) {
+        this.permissionListeners.add(listener);
+    }
+
+    public long getVersion() {
+        return this.current().version();
+    }
+
+    public List<RoleDTO> getRoles() {
+        return this.current().roles();
+    }
+
+    public List<PermissionDTO> getPermissions() {
+        return this.current().permissions();
+    }
+
+    public RoleDTO getRole(Long roleId) {
+        return this.current().rolesById().get(roleId);
+    }
+
+    public PermissionDTO getPermission(Long permissionId) {
+        return this.current().permissionsById().get(permissionId);
+    }
+
+    public String getRolesJson(Collection<Long> roleIds) {
+        Map<Long, String> rolesJson = this.current().rolesJson();
+        StringJoiner json = new StringJoiner(",", "[", "]");
+
+        roleIds.forEach(roleId -> {
+            String roleJson = rolesJson.get(roleId);
+
+            // roles created after the snapshot are loaded on their own, as UserRoleService does
+            if (roleJson == null) {
+                try {
+                    roleJson = this.toJson(this.toDTO(this.roleRepository.getById(roleId, FetchPlans.ROLE_PERMISSIONS)));
+                } catch (EntityNotFoundException e) {
+                    return;
+                }
+            }
+
+            json.add(roleJson);
+        });
+
+        return json.toString();
+    }
+
+    private Snapshot current() {
+        Snapshot current = this.snapshot;
+
+        if (current == null) {
+            this.refresh();
+            current = this.snapshot;
+        }
+
+        return current;
+    }
+
+    private Snapshot load(long version) {
+        PermissionDTO[] permissions = this.permissionRepository.getAll().stream()
+                .map(permission -> new PermissionDTO(permission.getId(), permission.getName()))
+                .sorted(Comparator.comparing(PermissionDTO::id))
+                .toArray(PermissionDTO[]::new);
+
+        RoleDTO[] roles = this.roleRepository.getAll(FetchPlans.ROLE_PERMISSIONS).stream()
+                .map(this::toDTO)
+                .sorted(Comparator.comparing(RoleDTO::id))
+                .toArray(RoleDTO[]::new);
+
+        Map<Long, PermissionDTO> permissionsById = new HashMap<>();
+        Arrays.stream(permissions).forEach(permission -> permissionsById.put(permission.id(), permission));
+
+        Map<Long, RoleDTO> rolesById = new HashMap<>();
+        Map<Long, String> rolesJson = new HashMap<>();
+
+        for (RoleDTO role : roles) {
+            rolesById.put(role.id(), role);
+            rolesJson.put(role.id(), this.toJson(role));
+        }
+
+        return new Snapshot(
+                version,
+                List.of(roles),
+                List.of(permissions),
+                Map.copyOf(rolesById),
+                Map.copyOf(permissionsById),
+                Map.copyOf(rolesJson)
+        );
+    }
+
+    private RoleDTO toDTO(Role role) {
+        return new RoleDTO(
+                role.getId(),
+                role.getName(),
+                role.getPermissions().stream()
+                        .map(permission -> new PermissionDTO(permission.getId(), permission.getName()))
+                        .sorted(Comparator.comparing(PermissionDTO::id))
+                        .toList()
+        );
+    }
+
+    private String toJson(RoleDTO role) {
+        try {
+            return MAPPER.writeValueAsString(role);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize role " + role.id() + ".", e);
+        }
+    }
+}
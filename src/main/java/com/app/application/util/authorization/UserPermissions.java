@@ -0,0 +1,102 @@
+package com.app.application.util.authorization;
+
+import com.app.application.dto.authorization.PermissionDTO;
+import com.app.application.dto.authorization.RoleDTO;
+import com.app.application.util.authorization.exception.UnknownPermissionException;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+public final class UserPermissions {
+    private static final String SUPER_USER_CLAIM = "*";
+
+    private final boolean superUser;
+    private final long[] bits;
+
+    private UserPermissions(boolean superUser, long[] bits) {
+        this.superUser = superUser;
+        this.bits = bits;
+    }
+
+    // only looks ids up, the registry learns permissions when the catalog loads them. one it never saw
+    // means the roles were read past the catalog, and granting it under a guessed bit is not an option
+    public static UserPermissions of(List<RoleDTO> roles, PermissionRegistry registry) {
+        boolean superUser = false;
+        long[] bits = new long[0];
+
+        for (RoleDTO role : roles) {
+            if (RolesEnum.SUPER.toString().equalsIgnoreCase(role.name())) {
+                superUser = true;
+            }
+
+            for (PermissionDTO permission : role.permissions()) {
+                int id = registry.getId(permission.name());
+
+                if (id == PermissionRegistry.UNKNOWN) {
+                    throw new UnknownPermissionException("Permission " + permission.name() + " is not registered.");
+                }
+
+                int word = id >>> 6;
+
+                if (word >= bits.length) {
+                    bits = Arrays.copyOf(bits, word + 1);
+                }
+
+                bits[word] |= 1L << id;
+            }
+        }
+
+        return new UserPermissions(superUser, bits);
+    }
+
+    // super users are written as "*", everyone else as the bitset in little-endian bytes, trailing zero
+    // bytes dropped, in unpadded base64url. bit n stands for the permission whose database id is n
+    public String encode() {
+        if (this.superUser) {
+            return SUPER_USER_CLAIM;
+        }
+
+        byte[] bytes = new byte[this.bits.length * 8];
+        int length = 0;
+
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (this.bits[i >>> 3] >>> ((i & 7) * 8));
+
+            if (bytes[i] != 0) {
+                length = i + 1;
+            }
+        }
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(bytes, length));
+    }
+
+    public static UserPermissions decode(String encoded) {
+        if (SUPER_USER_CLAIM.equals(encoded)) {
+            return new UserPermissions(true, new long[0]);
+        }
+
+        byte[] bytes = Base64.getUrlDecoder().decode(encoded);
+        long[] bits = new long[(bytes.length + 7) >>> 3];
+
+        for (int i = 0; i < bytes.length; i++) {
+            bits[i >>> 3] |= (bytes[i] & 0xFFL) << ((i & 7) * 8);
+        }
+
+        return new UserPermissions(false, bits);
+    }
+
+    public boolean allows(int permissionId) {
+        if (this.superUser) {
+            return true;
+        }
+
+        if (permissionId < 0) {
+            return false;
+        }
+
+        int word = permissionId >>> 6;
+
+        return word < this.bits.length && (this.bits[word] & (1L << permissionId)) != 0;
+    }
+}
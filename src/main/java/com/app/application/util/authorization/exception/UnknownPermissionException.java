@@ -0,0 +1,7 @@
+package com.app.application.util.authorization.exception;
+
+public class UnknownPermissionException extends RuntimeException {
+    public UnknownPermissionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,70 @@
+package com.app.application.util.export;
+
+import com.app.application.dto.user.UserResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+// writes one user per line as it is read, so an export never holds more than the current row and the
+// writer's buffer no matter how many users there are
+public class UserExportWriter {
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+
+    private static final String CSV_HEADER = "id,name,email,picture,created_at,updated_at,deleted_at";
+
+    public void write(Stream<UserResponseDTO> users, ExportFormat format, OutputStream output) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+
+        try {
+            if (format == ExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+
+            for (UserResponseDTO user : (Iterable<UserResponseDTO>) users::iterator) {
+                writer.write(format == ExportFormat.CSV ? this.toCsv(user) : MAPPER.writeValueAsString(user));
+                writer.write('\n');
+            }
+
+            // the response stream belongs to the container, so it is flushed but left open
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String toCsv(UserResponseDTO user) {
+        return String.join(",",
+                this.escape(user.id()),
+                this.escape(user.name()),
+                this.escape(user.email()),
+                this.escape(user.picture()),
+                this.escape(user.createdAt()),
+                this.escape(user.updatedAt()),
+                this.escape(user.deletedAt())
+        );
+    }
+
+    private String escape(Object value) {
+        if (value == null) {
+            return "";
+        }
+
+        String text = value.toString();
+
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+
+        return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -1,12 +1,12 @@
 package com.app.config;
 
-import jakarta.persistence.EntityManager;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
@@ -14,7 +14,7 @@ import org.springframework.transaction.PlatformTransactionManager;
 
 import jakarta.persistence.EntityManagerFactory;
 
-import javax.sql.DataSource;
+import java.util.Map;
 
 @Configuration
 public class JpaConfig {
@@ -37,13 +37,45 @@ public class JpaConfig {
     private String entitiesPackage;
 
     @Bean
-    public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName(this.driver);
-        dataSource.setUrl(this.url);
-        dataSource.setUsername(this.username);
-        dataSource.setPassword(this.password);
-        return dataSource;
+    public HikariDataSource dataSource() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("app-db");
+        config.setDriverClassName(this.driver);
+        config.setJdbcUrl(this.url);
+        config.setUsername(this.username);
+        config.setPassword(this.password);
+
+        // a fixed size pool by default: connections are opened once and reused, so a transaction never waits
+        // on a tcp and auth handshake. max_lifetime has to stay below mysql's wait_timeout
+        int maxSize = this.environment.getProperty("spring.datasource.pool.max_size", Integer.class, 10);
+        config.setMaximumPoolSize(maxSize);
+        config.setMinimumIdle(this.environment.getProperty("spring.datasource.pool.min_idle", Integer.class, maxSize));
+        config.setConnectionTimeout(this.environment.getProperty("spring.datasource.pool.connection_timeout_ms", Long.class, 30_000L));
+        config.setIdleTimeout(this.environment.getProperty("spring.datasource.pool.idle_timeout_ms", Long.class, 600_000L));
+        config.setMaxLifetime(this.environment.getProperty("spring.datasource.pool.max_lifetime_ms", Long.class, 1_800_000L));
+        config.setLeakDetectionThreshold(this.environment.getProperty("spring.datasource.pool.leak_detection_ms", Long.class, 0L));
+
+        // statements are prepared once per connection on the server and reused from the driver's cache, and
+        // batches are rewritten into multi-row statements
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty(
+                "prepStmtCacheSize",
+                this.environment.getProperty("spring.datasource.mysql.prep_stmt_cache_size", "250")
+        );
+        config.addDataSourceProperty(
+                "prepStmtCacheSqlLimit",
+                this.environment.getProperty("spring.datasource.mysql.prep_stmt_cache_sql_limit", "2048")
+        );
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        config.addDataSourceProperty("cacheResultSetMetadata", "true");
+        config.addDataSourceProperty("cacheServerConfiguration", "true");
+        config.addDataSourceProperty("useLocalSessionState", "true");
+        config.addDataSourceProperty("elideSetAutoCommits", "true");
+        config.addDataSourceProperty("maintainTimeStats", "false");
+
+        // actuator publishes the pool's hikaricp.* meters (pending, active, acquire time) for this bean
+        return new HikariDataSource(config);
     }
 
     @Bean
@@ -55,6 +87,12 @@ public class JpaConfig {
         factory.setJpaVendorAdapter(vendorAdapter);
         factory.setPackagesToScan(this.entitiesPackage);
         factory.setDataSource(dataSource());
+        // join table rows written by association syncs are sent in batches instead of one round trip each
+        factory.setJpaPropertyMap(Map.of(
+                "hibernate.jdbc.batch_size", this.environment.getProperty("spring.hibernate.batch_size", "50"),
+                "hibernate.order_inserts", "true",
+                "hibernate.order_updates", "true"
+        ));
         return factory;
     }
 
@@ -0,0 +1,63 @@
+package com.app.config;
+
+import com.app.infrastructure.security.auth.CachedJWTAuthHandler;
+import com.app.infrastructure.security.hasher.PooledHasher;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class MetricsConfig {
+    @Autowired
+    private CachedJWTAuthHandler verifiedTokenCache;
+
+    @Autowired
+    private PooledHasher pooledHasher;
+
+    @Bean
+    public MeterBinder verifiedTokenCacheMetrics() {
+        return registry -> {
+            FunctionCounter.builder("auth.token_cache.requests", verifiedTokenCache, CachedJWTAuthHandler::getHits)
+                    .tag("result", "hit")
+                    .register(registry);
+
+            FunctionCounter.builder("auth.token_cache.requests", verifiedTokenCache, CachedJWTAuthHandler::getMisses)
+                    .tag("result", "miss")
+                    .register(registry);
+
+            FunctionCounter.builder("auth.token_cache.evictions", verifiedTokenCache, CachedJWTAuthHandler::getEvictions)
+                    .register(registry);
+
+            Gauge.builder("auth.token_cache.size", verifiedTokenCache, CachedJWTAuthHandler::getSize)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder pooledHasherMetrics() {
+        return registry -> {
+            Gauge.builder("auth.hasher.queue_depth", pooledHasher, PooledHasher::getQueueDepth)
+                    .register(registry);
+
+            Gauge.builder("auth.hasher.active", pooledHasher, PooledHasher::getActiveCount)
+                    .register(registry);
+
+            FunctionCounter.builder("auth.hasher.rejections", pooledHasher, PooledHasher::getRejections)
+                    .register(registry);
+
+            FunctionTimer.builder("auth.hasher.latency", pooledHasher, PooledHasher::getCompleted, PooledHasher::getQueueSeconds, TimeUnit.SECONDS)
+                    .tag("phase", "queue")
+                    .register(registry);
+
+            FunctionTimer.builder("auth.hasher.latency", pooledHasher, PooledHasher::getCompleted, PooledHasher::getHashSeconds, TimeUnit.SECONDS)
+                    .tag("phase", "hash")
+                    .register(registry);
+        };
+    }
+}
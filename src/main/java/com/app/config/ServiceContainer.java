@@ -3,39 +3,75 @@ package com.app.config;
 import com.app.application.service.AuthService;
 import com.app.application.service.UserRoleService;
 import com.app.application.service.UserService;
+import com.app.application.util.export.UserExportWriter;
 import com.app.application.util.authentication.AuthInterceptorHandler;
+import com.app.application.util.authentication.PrincipalCache;
+import com.app.application.util.authentication.TokenBlacklist;
+import com.app.application.util.authentication.TokenGenerations;
+import com.app.application.util.authentication.LoginThrottle;
+import com.app.application.util.authentication.TokenRevocationInterface;
 import com.app.application.util.authorization.AuthorizationInterceptorHandler;
+import com.app.application.util.authorization.PermissionCache;
+import com.app.application.util.authorization.PermissionClaims;
+import com.app.application.util.authorization.PermissionRegistry;
+import com.app.application.util.authorization.RoleCatalog;
+import com.app.infrastructure.cache.BloomFilter;
 import com.app.infrastructure.cache.CacheInterface;
 import com.app.infrastructure.cache.JedisCache;
 import com.app.infrastructure.interceptor.AuthenticationInterceptor;
 import com.app.infrastructure.interceptor.AuthorizationInterceptor;
+import com.app.infrastructure.interceptor.RoutePermissionRuntimeHints;
+import com.app.infrastructure.interceptor.RoutePermissionTable;
+import com.app.infrastructure.persistence.entity.Permission;
 import com.app.infrastructure.persistence.entity.Role;
 import com.app.infrastructure.persistence.entity.User;
 import com.app.infrastructure.persistence.repository.RepositoryInterface;
 import com.app.infrastructure.persistence.repository.spring.SpringRepository;
 import com.app.infrastructure.security.auth.*;
-import com.app.infrastructure.security.auth.exception.AuthException;
+import com.app.infrastructure.security.hasher.Argon2idHasher;
 import com.app.infrastructure.security.hasher.HasherInterface;
+import com.app.infrastructure.security.hasher.HasherRegistry;
+import com.app.infrastructure.security.hasher.Pbkdf2Hasher;
+import com.app.infrastructure.security.hasher.PooledHasher;
 import com.app.infrastructure.security.hasher.SpringBcryptHasher;
 import com.app.infrastructure.storage.S3Storage;
 import com.app.infrastructure.storage.StorageInterface;
+import com.auth0.jwt.algorithms.Algorithm;
 import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.context.annotation.Scope;
 import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Protocol;
 
 import java.io.File;
 import java.net.URL;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
-import java.security.KeyFactory;
-import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
+@ImportRuntimeHints(RoutePermissionRuntimeHints.class)
 public class ServiceContainer {
     @Autowired
     private EntityManager entityManager;
@@ -43,6 +79,14 @@ public class ServiceContainer {
     @Autowired
     private Environment env;
 
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+
     @Bean
     @Scope("prototype")
     public <T> RepositoryInterface<T> repository() {
@@ -51,50 +95,288 @@ public class ServiceContainer {
 
     @Bean
     public HasherInterface hasherInterface() {
-        return new SpringBcryptHasher();
+        return pooledHasher();
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public PooledHasher pooledHasher() {
+        int threads = env.getProperty("auth.hasher.threads", Integer.class, Runtime.getRuntime().availableProcessors());
+        int queueCapacity = env.getProperty("auth.hasher.queue_capacity", Integer.class, threads * 4);
+        long retryAfterSeconds = env.getProperty("auth.hasher.retry_after_seconds", Long.class, 1L);
+        long waitTimeoutMillis = env.getProperty("auth.hasher.wait_timeout_ms", Long.class, 5000L);
+
+        return new PooledHasher(hasherRegistry(), threads, queueCapacity, retryAfterSeconds, waitTimeoutMillis);
+    }
+
+    private HasherRegistry hasherRegistry() {
+        SpringBcryptHasher bcrypt = bcryptHasher();
+
+        Argon2idHasher argon2id = new Argon2idHasher(
+                env.getProperty("auth.hasher.argon2id.memory_kb", Integer.class, 19456),
+                env.getProperty("auth.hasher.argon2id.iterations", Integer.class, 2),
+                env.getProperty("auth.hasher.argon2id.parallelism", Integer.class, 1)
+        );
+
+        Pbkdf2Hasher pbkdf2 = new Pbkdf2Hasher(env.getProperty("auth.hasher.pbkdf2.iterations", Integer.class, 600_000));
+
+        HasherInterface primary = switch (env.getProperty("auth.hasher.algorithm", "bcrypt")) {
+            case "argon2id" -> argon2id;
+            case "pbkdf2" -> pbkdf2;
+            default -> bcrypt;
+        };
+
+        return new HasherRegistry(primary)
+                .register("$2a$", bcrypt)
+                .register("$2b$", bcrypt)
+                .register("$2y$", bcrypt)
+                .register(Argon2idHasher.PREFIX, argon2id)
+                .register(Pbkdf2Hasher.PREFIX, pbkdf2);
+    }
+
+    @Bean
+    public SpringBcryptHasher bcryptHasher() {
+        Integer cost = env.getProperty("auth.hasher.bcrypt.cost", Integer.class);
+
+        if (cost == null) {
+            long targetMillis = env.getProperty("auth.hasher.bcrypt.target_ms", Long.class, 250L);
+            int minCost = env.getProperty("auth.hasher.bcrypt.min_cost", Integer.class, 10);
+            int maxCost = env.getProperty("auth.hasher.bcrypt.max_cost", Integer.class, 16);
+
+            cost = SpringBcryptHasher.calibrate(Duration.ofMillis(targetMillis), minCost, maxCost);
+        }
+
+        return new SpringBcryptHasher(cost);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService passwordRehashExecutor() {
+        // rehashes are best effort, so once the queue is full new ones are dropped until a later login
+        return new ThreadPoolExecutor(
+                1,
+                1,
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(env.getProperty("auth.hasher.rehash_queue_capacity", Integer.class, 100)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-rehash");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy()
+        );
     }
 
     @Bean
     public UserService userService() {
         RepositoryInterface<User> userRepository = this.repository();
         userRepository.setEntity(User.class);
-        return new UserService(userRepository, hasherInterface(), authHolder(), storageInterface());
+        return new UserService(
+                userRepository,
+                hasherInterface(),
+                authHolder(),
+                storageInterface(),
+                principalCache(),
+                clock(),
+                new UserExportWriter(),
+                env.getProperty("users.max_page_size", Integer.class, 100)
+        );
     }
 
     @Bean
     public JWTAuthInterface authInterface() {
-        KeyFactory keyFactory = null;
+        return verifiedTokenCache();
+    }
+
+    @Bean
+    public CachedJWTAuthHandler verifiedTokenCache() {
+        int maxEntries = env.getProperty("auth.token_cache.max_entries", Integer.class, 100_000);
 
-        try {
-            keyFactory = KeyFactory.getInstance("RSA");
-        } catch (NoSuchAlgorithmException e) {
-            throw new AuthException("Failed trying to instantiate key factory: " + e.getMessage());
+        return new CachedJWTAuthHandler(jwtHandler(), clock(), maxEntries);
+    }
+
+    private JWTAuthInterface jwtHandler() {
+        boolean acceptLegacyDates = env.getProperty("auth.tokens.accept_legacy_dates", Boolean.class, true);
+
+        return new Auth0JWTHandler(accessTokenAlgorithm(), previousAccessTokenAlgorithms(), acceptLegacyDates);
+    }
+
+    private JWTAuthInterface refreshTokenHandler() {
+        String secret = env.getProperty("auth.refresh_tokens.secret", "");
+
+        // without a secret refresh tokens keep being signed like access tokens
+        if (secret.isEmpty()) {
+            return jwtHandler();
         }
 
+        List<Algorithm> previousAlgorithms = new ArrayList<>();
+
+        Arrays.stream(env.getProperty("auth.refresh_tokens.previous_secrets", "").split(","))
+                .map(String::trim)
+                .filter(previousSecret -> !previousSecret.isEmpty())
+                .forEach(previousSecret -> previousAlgorithms.add(Algorithm.HMAC256(Base64.getDecoder().decode(previousSecret))));
+
+        // refresh tokens issued before the switch to hmac were signed with the access token keys
+        previousAlgorithms.add(accessTokenAlgorithm());
+        previousAlgorithms.addAll(previousAccessTokenAlgorithms());
+
+        boolean acceptLegacyDates = env.getProperty("auth.tokens.accept_legacy_dates", Boolean.class, true);
+
+        return new Auth0JWTHandler(
+                Algorithm.HMAC256(Base64.getDecoder().decode(secret)),
+                previousAlgorithms,
+                acceptLegacyDates
+        );
+    }
+
+    private Algorithm accessTokenAlgorithm() {
+        return signingAlgorithmProvider().get(env.getProperty("auth.tokens.algorithm", "RS256"));
+    }
+
+    private List<Algorithm> previousAccessTokenAlgorithms() {
+        SigningAlgorithmProvider algorithmProvider = signingAlgorithmProvider();
+
+        return Arrays.stream(env.getProperty("auth.tokens.previous_algorithms", "").split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .map(algorithmProvider::get)
+                .toList();
+    }
+
+    private SigningAlgorithmProvider signingAlgorithmProvider() {
         URL keyFilesURL = Auth0JWTHandler.class.getClassLoader().getResource("keys");
 
         File keysDir = new File(keyFilesURL.getFile());
         String keysDecodeDir = URLDecoder.decode(keysDir.getAbsolutePath(), StandardCharsets.UTF_8);
 
-        RSAAlgorithm rsaAlgorithm = new RSAAlgorithm(keyFactory, keysDecodeDir);
-        return new Auth0JWTHandler(rsaAlgorithm.getAlgorithm());
+        return new SigningAlgorithmProvider(keysDecodeDir);
     }
 
     @Bean
     public CacheInterface cacheInterface() {
-        JedisPool jedisPool = new JedisPool("localhost", 10001);
+        return jedisCache(
+                env.getProperty("cache.pool.max_wait_ms", Long.class, 2000L),
+                Protocol.DEFAULT_TIMEOUT
+        );
+    }
+
+    // request threads never wait on a connection for longer than maxWaitMillis, nor on a reply for longer
+    // than timeoutMillis, the call then fails with a CacheException. subscribers hold connections of their
+    // own, outside the pool
+    private JedisCache jedisCache(long maxWaitMillis, int timeoutMillis) {
+        String host = "localhost";
+        int port = 10001;
+
+        JedisPoolConfig poolConfig = new JedisPoolConfig();
+        poolConfig.setMaxTotal(env.getProperty("cache.pool.max_total", Integer.class, 32));
+        poolConfig.setMaxIdle(poolConfig.getMaxTotal());
+        poolConfig.setMaxWait(Duration.ofMillis(maxWaitMillis));
+
+        JedisPool jedisPool = new JedisPool(poolConfig, host, port, timeoutMillis);
+
+        return new JedisCache(jedisPool, () -> new Jedis(host, port));
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService cacheSyncScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Bean
+    public TokenRevocationInterface tokenRevocation() {
+        String mode = env.getProperty("auth.revocation.mode", "blacklist");
+
+        if (mode.equals("generation")) {
+            return this.tokenGenerations();
+        }
+
+        return this.tokenBlacklist();
+    }
+
+    private TokenGenerations tokenGenerations() {
+        int maxEntries = env.getProperty("auth.revocation.generations.max_entries", Integer.class, 100_000);
+
+        TokenGenerations tokenGenerations = new TokenGenerations(cacheInterface(), clock(), maxEntries);
+        tokenGenerations.listen();
+
+        return tokenGenerations;
+    }
+
+    private TokenBlacklist tokenBlacklist() {
+        long expectedTokens = env.getProperty("auth.revocation.expected_tokens", Long.class, 1_000_000L);
+        double falsePositiveRate = env.getProperty("auth.revocation.false_positive_rate", Double.class, 0.01);
+        long syncIntervalMillis = env.getProperty("auth.revocation.sync_interval_ms", Long.class, 1000L);
+
+        TokenBlacklist tokenBlacklist = new TokenBlacklist(
+                cacheInterface(),
+                authInterface(),
+                () -> new BloomFilter(expectedTokens, falsePositiveRate),
+                clock(),
+                AuthService.REFRESH_TOKEN_LIFETIME
+        );
+
+        cacheSyncScheduler().scheduleWithFixedDelay(
+                tokenBlacklist::sync,
+                0,
+                syncIntervalMillis,
+                TimeUnit.MILLISECONDS
+        );
+
+        // drains the pre-TTL blacklist set one batch at a time, interleaved with syncs
+        cacheSyncScheduler().scheduleWithFixedDelay(
+                tokenBlacklist::migrateLegacyBlacklist,
+                0,
+                syncIntervalMillis,
+                TimeUnit.MILLISECONDS
+        );
+
+        return tokenBlacklist;
+    }
+
+    @Bean
+    public PrincipalCache principalCache() {
+        long ttlMillis = env.getProperty("auth.principal_cache.ttl_ms", Long.class, 60_000L);
+        int maxEntries = env.getProperty("auth.principal_cache.max_entries", Integer.class, 100_000);
+
+        PrincipalCache principalCache = new PrincipalCache(cacheInterface(), clock(), ttlMillis, maxEntries);
+        principalCache.listen();
 
-        return new JedisCache(jedisPool);
+        return principalCache;
     }
 
     @Bean
     public AuthService authService() {
         return new AuthService(
                 authInterface(),
+                refreshTokenHandler(),
                 userService(),
                 hasherInterface(),
-                cacheInterface(),
-                authHolder()
+                authHolder(),
+                tokenRevocation(),
+                clock(),
+                passwordRehashExecutor(),
+                loginThrottle(),
+                userRoleService(),
+                permissionClaims()
+        );
+    }
+
+    @Bean
+    public LoginThrottle loginThrottle() {
+        // every login waits on the throttle, so its commands get a pool of their own that gives up after
+        // cache_timeout_ms, which the throttle answers from its local counts like any other cache failure
+        int cacheTimeoutMillis = env.getProperty("auth.login_throttle.cache_timeout_ms", Integer.class, 50);
+
+        return new LoginThrottle(
+                jedisCache(cacheTimeoutMillis, cacheTimeoutMillis),
+                clock(),
+                Duration.ofSeconds(env.getProperty("auth.login_throttle.window_seconds", Long.class, 60L)),
+                env.getProperty("auth.login_throttle.max_account_failures", Integer.class, 10),
+                env.getProperty("auth.login_throttle.max_address_failures", Integer.class, 100),
+                env.getProperty("auth.login_throttle.max_entries", Integer.class, 100_000)
         );
     }
 
@@ -107,9 +389,11 @@ public class ServiceContainer {
     public AuthInterceptorHandler authInterceptorHandler() {
         return new AuthInterceptorHandler(
                 this.authInterface(),
-                this.cacheInterface(),
+                this.tokenRevocation(),
                 this.userService(),
-                authHolder()
+                authHolder(),
+                principalCache(),
+                clock()
         );
     }
 
@@ -126,17 +410,97 @@ public class ServiceContainer {
         RepositoryInterface<Role> roleRepository = repository();
         roleRepository.setEntity(Role.class);
 
-        return new UserRoleService(userRepository, roleRepository);
+        return new UserRoleService(
+                userRepository,
+                roleRepository,
+                principalCache(),
+                permissionCache(),
+                permissionClaims(),
+                tokenRevocation(),
+                roleCatalog()
+        );
+    }
+
+    @Bean
+    public RoleCatalog roleCatalog() {
+        RepositoryInterface<Role> roleRepository = repository();
+        roleRepository.setEntity(Role.class);
+
+        RepositoryInterface<Permission> permissionRepository = repository();
+        permissionRepository.setEntity(Permission.class);
+
+        long refreshIntervalMillis = env.getProperty("auth.role_catalog.refresh_interval_ms", Long.class, 5000L);
+
+        RoleCatalog roleCatalog = new RoleCatalog(roleRepository, permissionRepository, cacheInterface());
+        roleCatalog.refresh();
+
+        // polling a single counter is enough as long as writes to the catalog tables bump it
+        cacheSyncScheduler().scheduleWithFixedDelay(
+                roleCatalog::refresh,
+                refreshIntervalMillis,
+                refreshIntervalMillis,
+                TimeUnit.MILLISECONDS
+        );
+
+        return roleCatalog;
+    }
+
+    @Bean
+    public PermissionRegistry permissionRegistry() {
+        PermissionRegistry permissionRegistry = new PermissionRegistry(roleCatalog().getPermissions());
+        roleCatalog().onPermissionsLoaded(permissionRegistry::registerAll);
+
+        return permissionRegistry;
+    }
+
+    @Bean
+    public PermissionClaims permissionClaims() {
+        String mode = env.getProperty("auth.authorization.mode", "lookup");
+
+        return new PermissionClaims(mode.equals("claims"), permissionRegistry());
+    }
+
+    @Bean
+    public PermissionCache permissionCache() {
+        long ttlMillis = env.getProperty("auth.permission_cache.ttl_ms", Long.class, 60_000L);
+        int maxEntries = env.getProperty("auth.permission_cache.max_entries", Integer.class, 100_000);
+
+        PermissionCache permissionCache = new PermissionCache(cacheInterface(), clock(), ttlMillis, maxEntries);
+        permissionCache.listen();
+
+        return permissionCache;
     }
 
     @Bean
     public AuthorizationInterceptorHandler authorizationInterceptorHandler() {
-        return new AuthorizationInterceptorHandler(authHolder(), userRoleService());
+        return new AuthorizationInterceptorHandler(
+                authHolder(),
+                userRoleService(),
+                permissionRegistry(),
+                permissionCache(),
+                permissionClaims()
+        );
+    }
+
+    @Bean
+    public RoutePermissionTable routePermissionTable() {
+        return new RoutePermissionTable(permissionRegistry());
+    }
+
+    // the handler mapping is only created after the interceptors it holds, so the table is filled in once every
+    // singleton exists, before the server accepts requests. unknown permission names fail the startup here
+    @Bean
+    public SmartInitializingSingleton routePermissionTableInitializer() {
+        return () -> routePermissionTable().build(
+                applicationContext.getBean("requestMappingHandlerMapping", RequestMappingHandlerMapping.class)
+                        .getHandlerMethods()
+                        .values()
+        );
     }
 
     @Bean
     public AuthorizationInterceptor authorizationInterceptor() {
-        return new AuthorizationInterceptor(authorizationInterceptorHandler());
+        return new AuthorizationInterceptor(authorizationInterceptorHandler(), routePermissionTable());
     }
 
     @Bean
@@ -0,0 +1,82 @@
+package com.app.infrastructure.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class BloomFilter {
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive.");
+        }
+
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1.");
+        }
+
+        double ln2 = Math.log(2);
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimalBits + 63) >>> 6));
+
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) this.bitCount / expectedInsertions * ln2));
+    }
+
+    // the hash is expected to come from a cryptographic digest, so its first 16 bytes
+    // are used directly as the two base hashes of the Kirsch-Mitzenmacher scheme
+    public void put(byte[] hash) {
+        long firstHash = this.readLong(hash, 0);
+        long secondHash = this.readLong(hash, 8);
+
+        for (int i = 0; i < this.hashCount; i++) {
+            long index = Math.floorMod(firstHash + i * secondHash, this.bitCount);
+            this.words.getAndAccumulate((int) (index >>> 6), 1L << index, (current, mask) -> current | mask);
+        }
+    }
+
+    public boolean mightContain(byte[] hash) {
+        long firstHash = this.readLong(hash, 0);
+        long secondHash = this.readLong(hash, 8);
+
+        for (int i = 0; i < this.hashCount; i++) {
+            long index = Math.floorMod(firstHash + i * secondHash, this.bitCount);
+
+            if ((this.words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public void clear() {
+        for (int i = 0; i < this.words.length(); i++) {
+            this.words.set(i, 0L);
+        }
+    }
+
+    public long getBitCount() {
+        return this.bitCount;
+    }
+
+    public int getHashCount() {
+        return this.hashCount;
+    }
+
+    private long readLong(byte[] hash, int offset) {
+        if (hash == null || hash.length < offset + 8) {
+            throw new IllegalArgumentException("Bloom filter hashes must be at least 16 bytes long.");
+        }
+
+        long value = 0;
+
+        for (int i = offset; i < offset + 8; i++) {
+            value = (value << 8) | (hash[i] & 0xFF);
+        }
+
+        return value;
+    }
+}
@@ -2,12 +2,28 @@ package com.app.infrastructure.cache;
 
 import com.app.infrastructure.cache.exception.CacheException;
 
+import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 public interface CacheInterface {
     void set(String key, String value) throws CacheException;
+    void set(String key, String value, long ttlSeconds) throws CacheException;
     String get(String key) throws CacheException;
+    long increment(String key) throws CacheException;
     boolean add(String key, String value) throws CacheException;
 
     Set<String> getList(String key) throws CacheException;
+    boolean isMember(String key, String value) throws CacheException;
+    List<String> getListSample(String key, int count) throws CacheException;
+    void removeFromList(String key, List<String> values) throws CacheException;
+
+    void addToSortedSet(String key, double score, String value) throws CacheException;
+    List<String> getSortedSetRange(String key, double minScore, double maxScore) throws CacheException;
+    void removeSortedSetRange(String key, double minScore, double maxScore) throws CacheException;
+
+    Object runScript(String script, List<String> keys, List<String> args) throws CacheException;
+
+    void publish(String channel, String message) throws CacheException;
+    void subscribe(String channel, Runnable onSubscribe, Consumer<String> onMessage);
 }
@@ -0,0 +1,93 @@
+package com.app.infrastructure.cache;
+
+import com.app.infrastructure.cache.exception.CacheException;
+
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// local per-node cache of values keyed by id. entries live for ttlMillis at most, and invalidations are
+// published on the channel so every node drops its copy right away instead of waiting for the ttl
+public class InvalidatingCache<V> {
+    private final CacheInterface cache;
+    private final String channel;
+    private final Clock clock;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final ConcurrentHashMap<Long, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    // bumped on every invalidation so a load that raced with one is not stored
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    public InvalidatingCache(CacheInterface cache, String channel, Clock clock, long ttlMillis, int maxEntries) {
+        this.cache = cache;
+        this.channel = channel;
+        this.clock = clock;
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    public void listen() {
+        this.cache.subscribe(this.channel, this::clear, this::evict);
+    }
+
+    public V get(Long id, Function<Long, V> loader) {
+        long now = this.clock.millis();
+
+        Entry<V> cached = this.entries.get(id);
+
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.value();
+        }
+
+        long invalidationsBeforeLoad = this.invalidations.get();
+
+        V value = loader.apply(id);
+
+        if (this.entries.size() >= this.maxEntries) {
+            Iterator<Long> iterator = this.entries.keySet().iterator();
+
+            if (iterator.hasNext()) {
+                this.entries.remove(iterator.next());
+            }
+        }
+
+        this.entries.put(id, new Entry<>(value, now + this.ttlMillis));
+
+        if (this.invalidations.get() != invalidationsBeforeLoad) {
+            this.entries.remove(id);
+        }
+
+        return value;
+    }
+
+    public void invalidate(Long id) {
+        this.evict(id.toString());
+
+        try {
+            this.cache.publish(this.channel, id.toString());
+        } catch (CacheException e) {
+            // other nodes still drop their copy once its ttl runs out
+        }
+    }
+
+    private void evict(String id) {
+        this.invalidations.incrementAndGet();
+
+        try {
+            this.entries.remove(Long.valueOf(id));
+        } catch (NumberFormatException e) {
+            // ignore messages that do not carry an id
+        }
+    }
+
+    private void clear() {
+        this.invalidations.incrementAndGet();
+        this.entries.clear();
+    }
+}
@@ -3,14 +3,25 @@ package com.app.infrastructure.cache;
 import com.app.infrastructure.cache.exception.CacheException;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
 
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class JedisCache implements CacheInterface {
+    private static final long RESUBSCRIBE_DELAY_MILLIS = 1000;
+
     private final JedisPool jedisPool;
+    private final Supplier<Jedis> subscriberConnections;
+    private final ConcurrentHashMap<String, String> scriptShas = new ConcurrentHashMap<>();
 
-    public JedisCache(JedisPool jedisPool) {
+    public JedisCache(JedisPool jedisPool, Supplier<Jedis> subscriberConnections) {
         this.jedisPool = jedisPool;
+        this.subscriberConnections = subscriberConnections;
     }
 
     @Override
@@ -22,6 +33,15 @@ public class JedisCache implements CacheInterface {
         }
     }
 
+    @Override
+    public void set(String key, String value, long ttlSeconds) throws CacheException {
+        try (Jedis jedis = jedisPool.getResource()) {
+            jedis.setex(key, ttlSeconds, value);
+        } catch (Exception e) {
+            throw new CacheException("Failed trying to put expiring object in cache: " + e.getMessage());
+        }
+    }
+
     @Override
     public String get(String key) throws CacheException {
         try (Jedis jedis = jedisPool.getResource()) {
@@ -31,6 +51,15 @@ public class JedisCache implements CacheInterface {
         }
     }
 
+    @Override
+    public long increment(String key) throws CacheException {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.incr(key);
+        } catch (Exception e) {
+            throw new CacheException("Failed trying to increment counter in cache: " + e.getMessage());
+        }
+    }
+
     @Override
     public boolean add(String key, String value) throws CacheException {
         try (Jedis jedis = jedisPool.getResource()) {
@@ -50,4 +79,120 @@ public class JedisCache implements CacheInterface {
             throw new CacheException("Failed trying to get list members from cache: " + e.getMessage());
         }
     }
+
+    @Override
+    public boolean isMember(String key, String value) throws CacheException {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.sismember(key, value);
+        } catch (Exception e) {
+            throw new CacheException("Failed trying to check set membership in cache: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<String> getListSample(String key, int count) throws CacheException {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.srandmember(key, count);
+        } catch (Exception e) {
+            throw new CacheException("Failed trying to sample list members from cache: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void removeFromList(String key, List<String> values) throws CacheException {
+        try (Jedis jedis = jedisPool.getResource()) {
+            jedis.srem(key, values.toArray(String[]::new));
+        } catch (Exception e) {
+            throw new CacheException("Failed trying to remove list members from cache: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void addToSortedSet(String key, double score, String value) throws CacheException {
+        try (Jedis jedis = jedisPool.getResource()) {
+            jedis.zadd(key, score, value);
+        } catch (Exception e) {
+            throw new CacheException("Failed trying to add object to sorted set in cache: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<String> getSortedSetRange(String key, double minScore, double maxScore) throws CacheException {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.zrangeByScore(key, minScore, maxScore);
+        } catch (Exception e) {
+            throw new CacheException("Failed trying to get sorted set range from cache: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void removeSortedSetRange(String key, double minScore, double maxScore) throws CacheException {
+        try (Jedis jedis = jedisPool.getResource()) {
+            jedis.zremrangeByScore(key, minScore, maxScore);
+        } catch (Exception e) {
+            throw new CacheException("Failed trying to remove sorted set range from cache: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Object runScript(String script, List<String> keys, List<String> args) throws CacheException {
+        try (Jedis jedis = jedisPool.getResource()) {
+            String sha = this.scriptShas.computeIfAbsent(script, jedis::scriptLoad);
+
+            try {
+                return jedis.evalsha(sha, keys, args);
+            } catch (JedisNoScriptException e) {
+                // the server lost its script cache, after a restart for instance
+                sha = jedis.scriptLoad(script);
+                this.scriptShas.put(script, sha);
+
+                return jedis.evalsha(sha, keys, args);
+            }
+        } catch (Exception e) {
+            throw new CacheException("Failed trying to run script in cache: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void publish(String channel, String message) throws CacheException {
+        try (Jedis jedis = jedisPool.getResource()) {
+            jedis.publish(channel, message);
+        } catch (Exception e) {
+            throw new CacheException("Failed trying to publish message to cache: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(String channel, Runnable onSubscribe, Consumer<String> onMessage) {
+        // subscribing blocks the connection for as long as it lasts, so it runs on its own thread over a connection
+        // of its own instead of pinning one of the pool's, and resubscribes whenever that connection drops.
+        // onSubscribe lets listeners drop state built while messages could be missed
+        Thread.ofPlatform().daemon().name("cache-subscriber-" + channel).start(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try (Jedis jedis = this.subscriberConnections.get()) {
+                    jedis.subscribe(this.createSubscriber(onSubscribe, onMessage), channel);
+                } catch (Exception e) {
+                    try {
+                        Thread.sleep(RESUBSCRIBE_DELAY_MILLIS);
+                    } catch (InterruptedException interruptedException) {
+                        return;
+                    }
+                }
+            }
+        });
+    }
+
+    private JedisPubSub createSubscriber(Runnable onSubscribe, Consumer<String> onMessage) {
+        return new JedisPubSub() {
+            @Override
+            public void onSubscribe(String channel, int subscribedChannels) {
+                onSubscribe.run();
+            }
+
+            @Override
+            public void onMessage(String channel, String message) {
+                onMessage.accept(message);
+            }
+        };
+    }
 }
@@ -3,8 +3,12 @@ package com.app.infrastructure.controller;
 import com.app.application.dto.auth.LoginRequestDTO;
 import com.app.application.dto.auth.LoginResponseDTO;
 import com.app.application.dto.auth.RefreshAuthRequestDTO;
+import com.app.application.exception.TooManyLoginAttemptsException;
 import com.app.application.service.AuthService;
 import com.app.application.util.http.ErrorResponse;
+import com.app.infrastructure.security.hasher.exception.HasherOverloadedException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,11 +23,21 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequestDTO loginRequestDTO) {
+    public ResponseEntity<?> login(@RequestBody LoginRequestDTO loginRequestDTO, HttpServletRequest request) {
         try {
-            LoginResponseDTO loginResponseDTO = authService.attemptLogin(loginRequestDTO);
+            LoginResponseDTO loginResponseDTO = authService.attemptLogin(loginRequestDTO, request.getRemoteAddr());
 
             return new ResponseEntity<>(loginResponseDTO, HttpStatus.OK);
+        } catch (TooManyLoginAttemptsException e) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+
+            return new ResponseEntity<>(new ErrorResponse(e.getMessage()), headers, HttpStatus.TOO_MANY_REQUESTS);
+        } catch (HasherOverloadedException e) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+
+            return new ResponseEntity<>(new ErrorResponse(e.getMessage()), headers, HttpStatus.SERVICE_UNAVAILABLE);
         } catch (Exception e) {
             return new ResponseEntity<>(new ErrorResponse(e.getMessage()), HttpStatus.BAD_REQUEST);
         }
@@ -1,18 +1,25 @@
 package com.app.infrastructure.controller;
 
 import com.app.application.dto.user.UpdatePasswordDTO;
+import com.app.application.dto.user.UserPageDTO;
 import com.app.application.dto.user.UserRequestDTO;
 import com.app.application.dto.user.UserResponseDTO;
 import com.app.application.exception.ForbiddenException;
 import com.app.application.exception.ResourceNotFound;
 import com.app.application.service.UserService;
 import com.app.application.util.authorization.RequiresAuthorization;
+import com.app.application.util.export.ExportFormat;
 import com.app.application.util.http.ErrorResponse;
 import com.app.infrastructure.persistence.exceptions.EntityNotFoundException;
+import com.app.infrastructure.security.hasher.exception.HasherOverloadedException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.File;
 import java.io.FileOutputStream;
@@ -20,7 +27,6 @@ import java.io.OutputStream;
 import java.net.URLEncoder;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -33,9 +39,12 @@ public class UserController {
 
     @GetMapping()
     @RequiresAuthorization("retrieve users")
-    public ResponseEntity<?> getAll() {
+    public ResponseEntity<?> getAll(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
         try {
-            List<UserResponseDTO> users = userService.getAll();
+            UserPageDTO users = userService.getPage(cursor, limit);
 
             return new ResponseEntity<>(users, HttpStatus.OK);
         } catch (Exception e) {
@@ -43,6 +52,31 @@ public class UserController {
         }
     }
 
+    @GetMapping("/export")
+    @RequiresAuthorization("retrieve users")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat;
+
+        try {
+            exportFormat = ExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            // the declared body type has to stay StreamingResponseBody for spring to stream it, errors included
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(output -> output.write(
+                            new ObjectMapper().writeValueAsBytes(new ErrorResponse("Unsupported export format."))
+                    ));
+        }
+
+        // rows are written to the response as they are read, after the handler has already returned
+        StreamingResponseBody body = output -> userService.export(exportFormat, output);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users." + exportFormat.getExtension())
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     @RequiresAuthorization("retrieve users")
     public ResponseEntity<?> get(@PathVariable int id) {
@@ -64,6 +98,11 @@ public class UserController {
             UserResponseDTO user = userService.create(userRequestDTO);
 
             return new ResponseEntity<>(user, HttpStatus.OK);
+        } catch (HasherOverloadedException e) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+
+            return new ResponseEntity<>(new ErrorResponse(e.getMessage()), headers, HttpStatus.SERVICE_UNAVAILABLE);
         } catch (Exception e) {
             return new ResponseEntity<>(new ErrorResponse(e.getMessage()), HttpStatus.BAD_REQUEST);
         }
@@ -88,6 +127,11 @@ public class UserController {
             UserResponseDTO user = userService.updatePassword(updatePasswordDTO);
 
             return new ResponseEntity<>(user, HttpStatus.OK);
+        } catch (HasherOverloadedException e) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+
+            return new ResponseEntity<>(new ErrorResponse(e.getMessage()), headers, HttpStatus.SERVICE_UNAVAILABLE);
         } catch (ForbiddenException e) {
             return new ResponseEntity<>(new ErrorResponse(e.getMessage()), HttpStatus.FORBIDDEN);
         } catch (Exception e) {
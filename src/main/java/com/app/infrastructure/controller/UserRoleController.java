@@ -7,6 +7,7 @@ import com.app.application.util.authorization.RequiresAuthorization;
 import com.app.application.util.http.ErrorResponse;
 import com.app.infrastructure.persistence.exceptions.EntityNotFoundException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -25,8 +26,9 @@ public class UserRoleController {
     @RequiresAuthorization("retrieve user roles")
     public ResponseEntity<?> getUserRoles(@PathVariable int userId) {
         try {
-            List<RoleDTO> userRoles = this.userRoleService.getUserRoles((long) userId);
-            return new ResponseEntity<>(userRoles, HttpStatus.OK);
+            // the roles are already serialized by the catalog, so they are only joined here
+            String userRoles = this.userRoleService.getUserRolesJson((long) userId);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(userRoles);
         } catch (ResourceNotFound | EntityNotFoundException e) {
             return new ResponseEntity<>(new ErrorResponse("User not found"), HttpStatus.NOT_FOUND);
         } catch (Exception e) {
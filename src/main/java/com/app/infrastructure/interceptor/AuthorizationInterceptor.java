@@ -1,7 +1,6 @@
 package com.app.infrastructure.interceptor;
 
 import com.app.application.util.authorization.AuthorizationInterceptorHandler;
-import com.app.application.util.authorization.RequiresAuthorization;
 import com.app.application.util.http.ErrorResponse;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,23 +14,23 @@ import java.io.IOException;
 
 public class AuthorizationInterceptor implements HandlerInterceptor {
     private final AuthorizationInterceptorHandler handler;
+    private final RoutePermissionTable routePermissions;
 
-    public AuthorizationInterceptor(AuthorizationInterceptorHandler handler) {
+    public AuthorizationInterceptor(AuthorizationInterceptorHandler handler, RoutePermissionTable routePermissions) {
         this.handler = handler;
+        this.routePermissions = routePermissions;
     }
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
         if (handler instanceof HandlerMethod handlerMethod) {
-            RequiresAuthorization annotation = handlerMethod.getMethodAnnotation(RequiresAuthorization.class);
+            int permissionId = this.routePermissions.get(handlerMethod);
 
-            if (annotation == null) {
+            if (permissionId == RoutePermissionTable.NOT_REQUIRED) {
                 return true;
             }
 
-            String actionName = annotation.value();
-
-            boolean authorized = this.handler.handle(actionName);
+            boolean authorized = this.handler.handle(permissionId);
 
             if (!authorized) {
                 return this.unauthorized(response);
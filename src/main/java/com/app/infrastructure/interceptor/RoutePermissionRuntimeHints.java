@@ -0,0 +1,15 @@
+package com.app.infrastructure.interceptor;
+
+import com.app.application.util.authorization.RequiresAuthorization;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+// controller methods are already registered for reflection by spring, but the route table also has to read
+// their annotation in native images
+public class RoutePermissionRuntimeHints implements RuntimeHintsRegistrar {
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection().registerType(RequiresAuthorization.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+    }
+}
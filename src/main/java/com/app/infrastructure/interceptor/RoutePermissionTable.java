@@ -0,0 +1,68 @@
+package com.app.infrastructure.interceptor;
+
+import com.app.application.util.authorization.PermissionRegistry;
+import com.app.application.util.authorization.RequiresAuthorization;
+import com.app.infrastructure.interceptor.exception.AuthorizationConfigurationException;
+import org.springframework.web.method.HandlerMethod;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RoutePermissionTable {
+    public static final int NOT_REQUIRED = -2;
+
+    private final PermissionRegistry permissionRegistry;
+
+    // built once at startup and never changed after, keyed by the method instances the handler mapping
+    // hands out with every request
+    private volatile Map<Method, Integer> permissionIds = Map.of();
+
+    public RoutePermissionTable(PermissionRegistry permissionRegistry) {
+        this.permissionRegistry = permissionRegistry;
+    }
+
+    public void build(Collection<HandlerMethod> handlerMethods) {
+        IdentityHashMap<Method, Integer> permissionIds = new IdentityHashMap<>();
+        List<String> unknown = new ArrayList<>();
+
+        for (HandlerMethod handlerMethod : handlerMethods) {
+            int permissionId = this.lookup(handlerMethod);
+
+            if (permissionId == PermissionRegistry.UNKNOWN) {
+                unknown.add(handlerMethod.getShortLogMessage());
+            }
+
+            permissionIds.put(handlerMethod.getMethod(), permissionId);
+        }
+
+        // a route requiring a permission no role can ever have would deny everyone but super users
+        if (!unknown.isEmpty()) {
+            throw new AuthorizationConfigurationException(
+                    "Routes require permissions missing from the permissions table: " + String.join(", ", unknown)
+            );
+        }
+
+        this.permissionIds = permissionIds;
+    }
+
+    public int get(HandlerMethod handlerMethod) {
+        Integer permissionId = this.permissionIds.get(handlerMethod.getMethod());
+
+        // only handlers registered after startup, if any, pay for reading the annotation
+        return permissionId != null ? permissionId : this.lookup(handlerMethod);
+    }
+
+    private int lookup(HandlerMethod handlerMethod) {
+        RequiresAuthorization annotation = handlerMethod.getMethodAnnotation(RequiresAuthorization.class);
+
+        if (annotation == null) {
+            return NOT_REQUIRED;
+        }
+
+        return this.permissionRegistry.getId(annotation.value());
+    }
+}
@@ -0,0 +1,7 @@
+package com.app.infrastructure.interceptor.exception;
+
+public class AuthorizationConfigurationException extends RuntimeException {
+    public AuthorizationConfigurationException(String message) {
+        super(message);
+    }
+}
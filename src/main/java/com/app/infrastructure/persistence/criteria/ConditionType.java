@@ -4,5 +4,7 @@ public enum ConditionType {
     EQUALS,
     NOT_EQUALS,
     LIKE,
-    ORDER
+    ORDER,
+    AFTER,
+    LIMIT
 }
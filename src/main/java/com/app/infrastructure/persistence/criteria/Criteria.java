@@ -49,4 +49,23 @@ public class Criteria {
 
         return this;
     }
+
+    // keyset pagination: combined with an ascending order on the same indexed field, each page starts
+    // right after the last value of the previous one instead of skipping every row before it
+    public <T> Criteria after(String field, T value) {
+        SimpleCondition<T> afterCondition = new SimpleCondition<T>(ConditionType.AFTER);
+        afterCondition.setField(field);
+        afterCondition.setValue(value);
+        this.conditions.add(afterCondition);
+
+        return this;
+    }
+
+    public Criteria limit(int maxResults) {
+        SimpleCondition<Integer> limitCondition = new SimpleCondition<Integer>(ConditionType.LIMIT);
+        limitCondition.setValue(maxResults);
+        this.conditions.add(limitCondition);
+
+        return this;
+    }
 }
@@ -1,5 +1,6 @@
 package com.app.infrastructure.persistence.entity;
 
+import com.app.infrastructure.persistence.repository.FetchPlans;
 import jakarta.persistence.*;
 
 import java.util.HashSet;
@@ -7,6 +8,7 @@ import java.util.Set;
 
 @Entity
 @Table(name = "roles")
+@NamedEntityGraph(name = FetchPlans.ROLE_PERMISSIONS, attributeNodes = @NamedAttributeNode("permissions"))
 public class Role {
     @Id
     @GeneratedValue
@@ -14,10 +16,10 @@ public class Role {
 
     private String name;
 
-    @ManyToMany(mappedBy = "roles", fetch = FetchType.EAGER)
+    @ManyToMany(mappedBy = "roles", fetch = FetchType.LAZY)
     private Set<User> users = new HashSet<User>();
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "roles_permissions",
             joinColumns = { @JoinColumn(name = "role_id") },
@@ -0,0 +1,16 @@
+package com.app.infrastructure.persistence.exceptions;
+
+import java.util.List;
+
+public class AssociationTargetsNotFoundException extends EntityNotFoundException {
+    private final List<Long> missingIds;
+
+    public AssociationTargetsNotFoundException(String message, List<Long> missingIds) {
+        super(message);
+        this.missingIds = missingIds;
+    }
+
+    public List<Long> getMissingIds() {
+        return this.missingIds;
+    }
+}
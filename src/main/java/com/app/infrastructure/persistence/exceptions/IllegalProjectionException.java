@@ -0,0 +1,7 @@
+package com.app.infrastructure.persistence.exceptions;
+
+public class IllegalProjectionException extends RuntimeException {
+    public IllegalProjectionException(String message) {
+        super(message);
+    }
+}
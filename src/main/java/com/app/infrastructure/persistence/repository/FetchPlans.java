@@ -0,0 +1,11 @@
+package com.app.infrastructure.persistence.repository;
+
+// names of the entity graphs declared on the entities. every association is lazy, so a use case that
+// reads one asks for the plan that fetches it in the same query
+public final class FetchPlans {
+    public static final String USER_ROLES = "user.roles";
+    public static final String ROLE_PERMISSIONS = "role.permissions";
+
+    private FetchPlans() {
+    }
+}
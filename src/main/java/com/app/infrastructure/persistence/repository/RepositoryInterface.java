@@ -1,22 +1,50 @@
 package com.app.infrastructure.persistence.repository;
 
 import com.app.infrastructure.persistence.criteria.Criteria;
+import com.app.infrastructure.persistence.exceptions.AssociationTargetsNotFoundException;
 import com.app.infrastructure.persistence.exceptions.EntityNotFoundException;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface RepositoryInterface<E> {
     void setEntity(Class<E> entityClass);
     E getById(Long id) throws EntityNotFoundException;
 
+    E getById(Long id, String fetchPlan) throws EntityNotFoundException;
+
     List<E> getAll();
 
+    List<E> getAll(String fetchPlan);
+
     E create(E newEntity);
 
     E update(Long id, E entity) throws EntityNotFoundException;
 
     boolean delete(Long id);
 
+    <T> List<T> syncAssociation(
+            Long id,
+            String fetchPlan,
+            String association,
+            Class<T> targetClass,
+            Collection<Long> targetIds
+    ) throws EntityNotFoundException, AssociationTargetsNotFoundException;
+
     List<E> getByFilter(Criteria criteria);
+
+    List<E> getByFilter(Criteria criteria, String fetchPlan);
+
+    <P> P getProjectionById(Long id, Class<P> projection) throws EntityNotFoundException;
+
+    <P> List<P> getAllProjections(Class<P> projection);
+
+    <P> List<P> getProjectionsByFilter(Criteria criteria, Class<P> projection);
+
+    void stream(Criteria criteria, Consumer<Stream<E>> consumer);
+
+    <P> void streamProjections(Criteria criteria, Class<P> projection, Consumer<Stream<P>> consumer);
 }
 
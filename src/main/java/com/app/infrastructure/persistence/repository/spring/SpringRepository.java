@@ -1,11 +1,16 @@
 package com.app.infrastructure.persistence.repository.spring;
 
+import com.app.infrastructure.persistence.exceptions.AssociationTargetsNotFoundException;
 import com.app.infrastructure.persistence.exceptions.EntityNotFoundException;
 import com.app.infrastructure.persistence.exceptions.IllegalUpdateException;
 import com.app.infrastructure.persistence.criteria.*;
 import com.app.infrastructure.persistence.exceptions.IllegalCriteriaTypeException;
+import com.app.infrastructure.persistence.exceptions.IllegalProjectionException;
 import com.app.infrastructure.persistence.repository.RepositoryInterface;
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.PersistenceUnitUtil;
 import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
 import jakarta.transaction.Transactional;
 import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,16 +18,31 @@ import org.springframework.beans.factory.annotation.Autowired;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class SpringRepository<E> implements RepositoryInterface<E> {
     @Autowired
     private final EntityManager entityManager;
 
+    private static final String FETCH_GRAPH_HINT = "jakarta.persistence.fetchgraph";
+    private static final String FETCH_SIZE_HINT = "org.hibernate.fetchSize";
+    private static final String READ_ONLY_HINT = "org.hibernate.readOnly";
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+
     private Class<E> entityClass;
 
-    private int equalsConditionsStrings = 0;
+    private final Map<Class<?>, String> projectionSelects = new ConcurrentHashMap<>();
 
     public SpringRepository(EntityManager entityManager) {
         this.entityManager = entityManager;
@@ -36,7 +56,15 @@ public class SpringRepository<E> implements RepositoryInterface<E> {
     @Override
     @Transactional
     public E getById(Long id) {
-        E entity = this.entityManager.find(this.entityClass, id);
+        return this.getById(id, null);
+    }
+
+    @Override
+    @Transactional
+    public E getById(Long id, String fetchPlan) {
+        E entity = fetchPlan != null
+                ? this.entityManager.find(this.entityClass, id, Map.of(FETCH_GRAPH_HINT, this.getFetchGraph(fetchPlan)))
+                : this.entityManager.find(this.entityClass, id);
 
         if (entity == null) {
             throw new EntityNotFoundException(this.entityClass.getSimpleName() + " with id " + id + " not found.");
@@ -48,8 +76,18 @@ public class SpringRepository<E> implements RepositoryInterface<E> {
     @Override
     @Transactional
     public List<E> getAll() {
+        return this.getAll(null);
+    }
+
+    @Override
+    @Transactional
+    public List<E> getAll(String fetchPlan) {
         String jpql = "SELECT e FROM " + this.entityClass.getSimpleName() + " e";
-        return this.entityManager.createQuery(jpql, this.entityClass).getResultList();
+        TypedQuery<E> query = this.entityManager.createQuery(jpql, this.entityClass);
+
+        this.applyFetchPlan(query, fetchPlan);
+
+        return query.getResultList();
     }
 
     @Override
@@ -97,40 +135,219 @@ public class SpringRepository<E> implements RepositoryInterface<E> {
         return true;
     }
 
+    // replaces the members of a many-to-many association with the given ids. the targets are loaded with a
+    // single IN query and only the difference with the current members is changed, so the join table sees
+    // one delete and one insert per changed row, which are sent in batches, instead of being rewritten whole
+    @Override
+    @Transactional
+    public <T> List<T> syncAssociation(
+            Long id,
+            String fetchPlan,
+            String association,
+            Class<T> targetClass,
+            Collection<Long> targetIds
+    ) {
+        E entity = this.getById(id, fetchPlan);
+        Collection<Object> members = this.getAssociation(entity, association);
+
+        List<T> targets = targetIds.isEmpty()
+                ? List.of()
+                : this.entityManager
+                        .createQuery("SELECT t FROM " + targetClass.getSimpleName() + " t WHERE t.id IN :ids", targetClass)
+                        .setParameter("ids", targetIds)
+                        .getResultList();
+
+        PersistenceUnitUtil persistenceUnitUtil = this.entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+
+        Set<Object> targetKeys = new HashSet<>();
+        targets.forEach(target -> targetKeys.add(persistenceUnitUtil.getIdentifier(target)));
+
+        // checked before any member changes, so a sync naming a missing target writes nothing
+        List<Long> missingIds = targetIds.stream().distinct().filter(targetId -> !targetKeys.contains(targetId)).toList();
+
+        if (!missingIds.isEmpty()) {
+            throw new AssociationTargetsNotFoundException(
+                    targetClass.getSimpleName() + " with ids " + missingIds + " not found.",
+                    missingIds
+            );
+        }
+
+        members.removeIf(member -> !targetKeys.contains(persistenceUnitUtil.getIdentifier(member)));
+
+        Set<Object> memberKeys = new HashSet<>();
+        members.forEach(member -> memberKeys.add(persistenceUnitUtil.getIdentifier(member)));
+
+        targets.stream()
+                .filter(target -> !memberKeys.contains(persistenceUnitUtil.getIdentifier(target)))
+                .forEach(members::add);
+
+        return targets;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<Object> getAssociation(E entity, String association) {
+        try {
+            Field field = this.entityClass.getDeclaredField(association);
+            field.setAccessible(true);
+
+            return (Collection<Object>) field.get(entity);
+        } catch (NoSuchFieldException | IllegalAccessException | ClassCastException e) {
+            throw new IllegalUpdateException(
+                    this.entityClass.getSimpleName() + " has no collection named " + association + "."
+            );
+        }
+    }
+
     @Override
     @Transactional
     public List<E> getByFilter(Criteria criteria) {
+        return this.getByFilter(criteria, null);
+    }
+
+    @Override
+    @Transactional
+    public List<E> getByFilter(Criteria criteria, String fetchPlan) {
         String jpql = "SELECT entity FROM " + this.entityClass.getSimpleName() + " entity ";
 
+        Query query = this.createFilterQuery(jpql, criteria, this.entityClass);
+
+        this.applyFetchPlan(query, fetchPlan);
+
+        return (List<E>) query.getResultList();
+    }
+
+    @Override
+    @Transactional
+    public <P> P getProjectionById(Long id, Class<P> projection) {
+        String jpql = this.getProjectionSelect(projection) + "WHERE entity.id = :id";
+
+        List<P> results = this.entityManager.createQuery(jpql, projection)
+                .setParameter("id", id)
+                .getResultList();
+
+        if (results.isEmpty()) {
+            throw new EntityNotFoundException(this.entityClass.getSimpleName() + " with id " + id + " not found.");
+        }
+
+        return results.getFirst();
+    }
+
+    @Override
+    @Transactional
+    public <P> List<P> getAllProjections(Class<P> projection) {
+        return this.entityManager.createQuery(this.getProjectionSelect(projection), projection).getResultList();
+    }
+
+    @Override
+    @Transactional
+    public <P> List<P> getProjectionsByFilter(Criteria criteria, Class<P> projection) {
+        Query query = this.createFilterQuery(this.getProjectionSelect(projection), criteria, projection);
+
+        return (List<P>) query.getResultList();
+    }
+
+    // rows are read through a forward-only cursor, STREAM_FETCH_SIZE at a time, and every entity is detached
+    // once handed over, so memory stays flat however many rows match. the stream is only open inside the
+    // consumer, which runs in the repository's transaction
+    @Override
+    @Transactional
+    public void stream(Criteria criteria, Consumer<Stream<E>> consumer) {
+        String jpql = "SELECT entity FROM " + this.entityClass.getSimpleName() + " entity ";
+
+        Query query = this.createFilterQuery(jpql, criteria, this.entityClass);
+
+        this.applyStreamHints(query);
+
+        try (Stream<E> entities = (Stream<E>) query.getResultStream()) {
+            consumer.accept(entities.peek(this.entityManager::detach));
+        }
+    }
+
+    @Override
+    @Transactional
+    public <P> void streamProjections(Criteria criteria, Class<P> projection, Consumer<Stream<P>> consumer) {
+        Query query = this.createFilterQuery(this.getProjectionSelect(projection), criteria, projection);
+
+        this.applyStreamHints(query);
+
+        try (Stream<P> projections = (Stream<P>) query.getResultStream()) {
+            consumer.accept(projections);
+        }
+    }
+
+    // with MySQL the fetch size only bounds memory when the JDBC URL sets useCursorFetch=true, otherwise
+    // the driver reads the whole result before returning the first row
+    private void applyStreamHints(Query query) {
+        query.setHint(FETCH_SIZE_HINT, STREAM_FETCH_SIZE);
+        query.setHint(READ_ONLY_HINT, true);
+    }
+
+    private Query createFilterQuery(String select, Criteria criteria, Class<?> resultClass) {
         List<ConditionInterface<?>> conditions = criteria.getConditions();
 
+        // the repository is shared across requests, so the WHERE/AND state lives only as long as this call
+        WhereClause whereClause = new WhereClause();
+
         List<String> jpqlList = conditions.stream()
-                .map(this::translateCriteriaConditionToJPQL)
+                .map(condition -> this.translateCriteriaConditionToJPQL(condition, whereClause))
+                .filter(statement -> !statement.isEmpty())
                 .collect(Collectors.toList());
 
-        jpql += String.join(" ", jpqlList);
+        String jpql = select + String.join(" ", jpqlList);
 
-        Query query = this.entityManager.createQuery(jpql, this.entityClass);
+        Query query = this.entityManager.createQuery(jpql, resultClass);
 
         for (ConditionInterface<?> condition : conditions) {
             query = this.addConditionToQuery(query, condition);
         }
 
-        this.equalsConditionsStrings = 0;
+        return query;
+    }
 
-        return (List<E>) query.getResultList();
+    // a projection is a record whose components are named after entity fields, so the query selects only
+    // those columns into it. the results are plain objects the persistence context never tracks
+    private String getProjectionSelect(Class<?> projection) {
+        return this.projectionSelects.computeIfAbsent(projection, projectionClass -> {
+            if (!projectionClass.isRecord()) {
+                throw new IllegalProjectionException(projectionClass.getSimpleName() + " is not a record.");
+            }
+
+            String fields = Arrays.stream(projectionClass.getRecordComponents())
+                    .map(RecordComponent::getName)
+                    .map(name -> "entity." + name)
+                    .collect(Collectors.joining(", "));
+
+            return "SELECT new " + projectionClass.getName() + "(" + fields + ") FROM "
+                    + this.entityClass.getSimpleName() + " entity ";
+        });
+    }
+
+    // a fetch graph loads the listed associations in the same query and leaves every other one lazy
+    private void applyFetchPlan(Query query, String fetchPlan) {
+        if (fetchPlan != null) {
+            query.setHint(FETCH_GRAPH_HINT, this.getFetchGraph(fetchPlan));
+        }
+    }
+
+    private EntityGraph<?> getFetchGraph(String fetchPlan) {
+        return this.entityManager.getEntityGraph(fetchPlan);
     }
 
-    private String translateCriteriaConditionToJPQL(ConditionInterface<?> condition) {
+    private String translateCriteriaConditionToJPQL(ConditionInterface<?> condition, WhereClause whereClause) {
         switch (condition.getType()) {
             case ConditionType.EQUALS:
-                return this.translateEquals((SimpleCondition<?>) condition);
+                return this.translateEquals((SimpleCondition<?>) condition, whereClause);
             case ConditionType.NOT_EQUALS:
-                return this.translateNotEquals((SimpleCondition<?>) condition);
+                return this.translateNotEquals((SimpleCondition<?>) condition, whereClause);
             case ConditionType.LIKE:
-                return this.translateLike((SimpleCondition<?>) condition);
+                return this.translateLike((SimpleCondition<?>) condition, whereClause);
             case ConditionType.ORDER:
                 return this.translateOrder((SimpleCondition<OrderDirections>) condition);
+            case ConditionType.AFTER:
+                return this.translateAfter((SimpleCondition<?>) condition, whereClause);
+            case ConditionType.LIMIT:
+                // applied to the query as max results, which the dialect renders as LIMIT
+                return "";
         }
 
         throw new IllegalCriteriaTypeException("Criteria " + condition.getType().name() + " not found");
@@ -140,9 +357,13 @@ public class SpringRepository<E> implements RepositoryInterface<E> {
 
         switch (condition.getType()) {
             case ConditionType.EQUALS,
-                 ConditionType.NOT_EQUALS:
+                 ConditionType.NOT_EQUALS,
+                 ConditionType.AFTER:
                 query = query.setParameter(condition.getField(), condition.getValue());
                 break;
+            case ConditionType.LIMIT:
+                query = query.setMaxResults((Integer) condition.getValue());
+                break;
             case ConditionType.LIKE:
                 query = query.setParameter(condition.getField(), "%" + condition.getValue() + "%");
                 break;
@@ -151,37 +372,20 @@ public class SpringRepository<E> implements RepositoryInterface<E> {
         return query;
     }
 
-    private String translateEquals(SimpleCondition<?> condition) {
-        String statementInitial = "WHERE";
-
-        if (this.equalsConditionsStrings != 0) {
-            statementInitial = "AND";
-        }
-
-        this.equalsConditionsStrings++;
-        return statementInitial + " " + condition.getField() + " = :" + condition.getField();
+    private String translateEquals(SimpleCondition<?> condition, WhereClause whereClause) {
+        return whereClause.next() + " " + condition.getField() + " = :" + condition.getField();
     }
 
-    private String translateNotEquals(SimpleCondition<?> condition) {
-        String statementInitial = "WHERE";
-
-        if (this.equalsConditionsStrings != 0) {
-            statementInitial = "AND";
-        }
-
-        this.equalsConditionsStrings++;
-        return statementInitial + " " + condition.getField() + " <> :" + condition.getField();
+    private String translateNotEquals(SimpleCondition<?> condition, WhereClause whereClause) {
+        return whereClause.next() + " " + condition.getField() + " <> :" + condition.getField();
     }
 
-    private String translateLike(SimpleCondition<?> condition) {
-        String statementInitial = "WHERE";
-
-        if (this.equalsConditionsStrings != 0) {
-            statementInitial = "AND";
-        }
+    private String translateLike(SimpleCondition<?> condition, WhereClause whereClause) {
+        return whereClause.next() + " " + condition.getField() + " LIKE :" + condition.getField();
+    }
 
-        this.equalsConditionsStrings++;
-        return statementInitial + " " + condition.getField() + " LIKE :" + condition.getField();
+    private String translateAfter(SimpleCondition<?> condition, WhereClause whereClause) {
+        return whereClause.next() + " " + condition.getField() + " > :" + condition.getField();
     }
 
     private String translateOrder(SimpleCondition<OrderDirections> condition) {
@@ -189,4 +393,12 @@ public class SpringRepository<E> implements RepositoryInterface<E> {
 
         return statementInitial + " " + condition.getField() + " " + condition.getValue().name();
     }
+
+    private static class WhereClause {
+        private int conditions = 0;
+
+        private String next() {
+            return this.conditions++ == 0 ? "WHERE" : "AND";
+        }
+    }
 }
@@ -1,78 +1,177 @@
 package com.app.infrastructure.security.auth;
 
 import com.app.application.dto.auth.JwtClaimDTO;
+import com.app.application.dto.auth.TokenClaimsDTO;
 import com.app.infrastructure.security.auth.exception.AuthException;
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.JWTCreator;
 import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.AlgorithmMismatchException;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
-import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 
-import java.util.ArrayList;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.Map;
 
 public class Auth0JWTHandler implements JWTAuthInterface {
+    private static final String ISSUER = "auth0";
+    private static final DateTimeFormatter LEGACY_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
     private final Algorithm algorithm;
-    private DecodedJWT decodedJWT;
+    private final JWTVerifier verifier;
+    private final List<JWTVerifier> previousVerifiers;
+    private final boolean acceptLegacyDates;
 
     public Auth0JWTHandler(Algorithm algorithm) {
+        this(algorithm, false);
+    }
+
+    public Auth0JWTHandler(Algorithm algorithm, boolean acceptLegacyDates) {
+        this(algorithm, List.of(), acceptLegacyDates);
+    }
+
+    public Auth0JWTHandler(Algorithm algorithm, List<Algorithm> previousAlgorithms, boolean acceptLegacyDates) {
         this.algorithm = algorithm;
+        this.acceptLegacyDates = acceptLegacyDates;
+        this.verifier = algorithm != null ? this.createVerifier(algorithm) : null;
+        this.previousVerifiers = previousAlgorithms.stream()
+                .map(previousAlgorithm -> this.createVerifier(previousAlgorithm))
+                .toList();
     }
 
     @Override
     public String createToken(List<JwtClaimDTO> claims) {
-        try {
-            JWTCreator.Builder token = JWT.create()
-                    .withIssuer("auth0");
+        return this.sign(this.createBuilder(claims));
+    }
 
-            claims.forEach(claim -> token.withClaim(claim.key(), claim.value()));
+    @Override
+    public String createToken(List<JwtClaimDTO> claims, Instant issuedAt, Instant expiresAt) {
+        return this.sign(this.createBuilder(claims).withIssuedAt(issuedAt).withExpiresAt(expiresAt));
+    }
 
-            return token.sign(this.algorithm);
-        } catch (JWTCreationException | IllegalArgumentException exception) {
-            throw new AuthException("JWT token creation failed.");
+    @Override
+    public boolean validateToken(String token) {
+        this.verify(token);
+
+        return true;
+    }
+
+    @Override
+    public TokenClaimsDTO verifyToken(String token) {
+        DecodedJWT decodedJWT = this.verify(token);
+
+        Long userId = this.parseLong(decodedJWT.getClaim("userId").asString(), "Token carries an invalid user id.");
+        Long generation = this.parseLong(decodedJWT.getClaim("generation").asString(), "Token carries an invalid generation.");
+
+        Long issuedAt = decodedJWT.getIssuedAtAsInstant() != null ? decodedJWT.getIssuedAtAsInstant().getEpochSecond() : null;
+        Long expiresAt = decodedJWT.getExpiresAtAsInstant() != null ? decodedJWT.getExpiresAtAsInstant().getEpochSecond() : null;
+
+        if (expiresAt == null && this.acceptLegacyDates) {
+            expiresAt = this.parseLegacyDate(decodedJWT.getClaim("expiresAt").asString());
         }
+
+        return new TokenClaimsDTO(
+                userId,
+                decodedJWT.getClaim("type").asString(),
+                issuedAt,
+                expiresAt,
+                generation,
+                decodedJWT.getClaim("permissions").asString()
+        );
     }
 
     @Override
-    public boolean validateToken(String token) {
-        DecodedJWT decodedJWT;
+    public void invalidate(String token) {
+        // nothing is kept between verifications, so there is nothing to drop
+    }
+
+    private JWTCreator.Builder createBuilder(List<JwtClaimDTO> claims) {
+        JWTCreator.Builder token = JWT.create()
+                .withIssuer(ISSUER);
+
+        claims.forEach(claim -> token.withClaim(claim.key(), claim.value()));
+
+        return token;
+    }
 
+    private String sign(JWTCreator.Builder token) {
         try {
-            JWTVerifier verifier = JWT.require(this.algorithm)
-                    .withIssuer("auth0")
-                    .build();
+            return token.sign(this.algorithm);
+        } catch (JWTCreationException | IllegalArgumentException exception) {
+            throw new AuthException("JWT token creation failed.");
+        }
+    }
 
-            decodedJWT = verifier.verify(token);
-            this.decodedJWT = decodedJWT;
-        } catch (JWTVerificationException exception){
+    private DecodedJWT verify(String token) {
+        if (this.verifier == null) {
             throw new AuthException("Token validation failed");
         }
 
-        return true;
+        try {
+            return this.verifier.verify(token);
+        } catch (AlgorithmMismatchException | SignatureVerificationException exception) {
+            return this.verifyWithPreviousAlgorithms(token);
+        } catch (TokenExpiredException exception) {
+            throw new AuthException("Provided token is expired.");
+        } catch (JWTVerificationException exception) {
+            throw new AuthException("Token validation failed");
+        }
     }
 
-    public List<JwtClaimDTO> getClaims() {
-        if (this.decodedJWT == null) {
-            throw new AuthException("JWT must be decoded in order to get it's claims.");
+    // tokens signed before an algorithm or key switch keep verifying until they expire
+    private DecodedJWT verifyWithPreviousAlgorithms(String token) {
+        for (JWTVerifier previousVerifier : this.previousVerifiers) {
+            try {
+                return previousVerifier.verify(token);
+            } catch (AlgorithmMismatchException | SignatureVerificationException exception) {
+                // try the next one
+            } catch (TokenExpiredException exception) {
+                throw new AuthException("Provided token is expired.");
+            } catch (JWTVerificationException exception) {
+                throw new AuthException("Token validation failed");
+            }
         }
 
-        Map<String, Claim> claims = this.decodedJWT.getClaims();
+        throw new AuthException("Token validation failed");
+    }
 
-        List<JwtClaimDTO> claimsDTOs = new ArrayList<>();
+    // expiry is checked against the injected clock by the callers, so the verifier only needs its own default
+    private JWTVerifier createVerifier(Algorithm algorithm) {
+        return JWT.require(algorithm).withIssuer(ISSUER).acceptLeeway(0).build();
+    }
 
-        for (Map.Entry<String, Claim> entry : claims.entrySet()) {
-            String claimName = entry.getKey();
-            Claim claimValue = entry.getValue();
+    private Long parseLong(String value, String errorMessage) {
+        if (value == null) {
+            return null;
+        }
 
-            JwtClaimDTO claimDTO = new JwtClaimDTO(claimName, claimValue.asString());
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException exception) {
+            throw new AuthException(errorMessage);
+        }
+    }
 
-            claimsDTOs.add(claimDTO);
+    // tokens issued before exp/iat were introduced carry their expiration as a local date string
+    private Long parseLegacyDate(String date) {
+        if (date == null || date.isEmpty()) {
+            return null;
         }
 
-        return claimsDTOs;
+        try {
+            return LocalDateTime.parse(date, LEGACY_DATE_FORMAT)
+                    .atZone(ZoneId.systemDefault())
+                    .toEpochSecond();
+        } catch (DateTimeParseException exception) {
+            throw new AuthException("Date parsing failed.");
+        }
     }
 }
@@ -1,10 +1,12 @@
 package com.app.infrastructure.security.auth;
 
+import com.app.application.dto.auth.TokenClaimsDTO;
 import com.app.domain.entity.User;
 import com.app.infrastructure.security.auth.exception.AuthException;
 
 public interface AuthHolderInterface {
-    void setAuth(User authUser, String token);
+    void setAuth(User authUser, String token, TokenClaimsDTO claims);
     User getUser() throws AuthException;
     String getToken();
+    TokenClaimsDTO getClaims();
 }
@@ -0,0 +1,138 @@
+package com.app.infrastructure.security.auth;
+
+import com.app.application.dto.auth.JwtClaimDTO;
+import com.app.application.dto.auth.TokenClaimsDTO;
+import com.app.infrastructure.security.auth.exception.AuthException;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class CachedJWTAuthHandler implements JWTAuthInterface {
+    private static final long PURGE_INTERVAL_MILLIS = 1000;
+
+    private final JWTAuthInterface handler;
+    private final Clock clock;
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, CachedClaims> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private volatile long lastPurgedAt = 0;
+
+    private record CachedClaims(TokenClaimsDTO claims, long expiresAt) {
+    }
+
+    public CachedJWTAuthHandler(JWTAuthInterface handler, Clock clock, int maxEntries) {
+        this.handler = handler;
+        this.clock = clock;
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public String createToken(List<JwtClaimDTO> claims) throws AuthException {
+        return this.handler.createToken(claims);
+    }
+
+    @Override
+    public String createToken(List<JwtClaimDTO> claims, Instant issuedAt, Instant expiresAt) throws AuthException {
+        return this.handler.createToken(claims, issuedAt, expiresAt);
+    }
+
+    @Override
+    public boolean validateToken(String token) throws AuthException {
+        this.verifyToken(token);
+
+        return true;
+    }
+
+    @Override
+    public TokenClaimsDTO verifyToken(String token) throws AuthException {
+        String fingerprint = TokenFingerprint.of(token);
+        long now = this.clock.millis();
+
+        CachedClaims cached = this.entries.get(fingerprint);
+
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                this.hits.increment();
+                return cached.claims();
+            }
+
+            if (this.entries.remove(fingerprint, cached)) {
+                this.evictions.increment();
+            }
+        }
+
+        this.misses.increment();
+
+        TokenClaimsDTO claims = this.handler.verifyToken(token);
+
+        if (claims.expiresAt() != null && claims.expiresAt() * 1000 > now) {
+            this.store(fingerprint, new CachedClaims(claims, claims.expiresAt() * 1000), now);
+        }
+
+        return claims;
+    }
+
+    @Override
+    public void invalidate(String token) {
+        if (this.entries.remove(TokenFingerprint.of(token)) != null) {
+            this.evictions.increment();
+        }
+
+        this.handler.invalidate(token);
+    }
+
+    private void store(String fingerprint, CachedClaims cachedClaims, long now) {
+        if (this.entries.size() >= this.maxEntries) {
+            this.purgeExpired(now);
+        }
+
+        if (this.entries.size() >= this.maxEntries) {
+            Iterator<String> iterator = this.entries.keySet().iterator();
+
+            if (iterator.hasNext() && this.entries.remove(iterator.next()) != null) {
+                this.evictions.increment();
+            }
+        }
+
+        this.entries.put(fingerprint, cachedClaims);
+    }
+
+    private void purgeExpired(long now) {
+        // a full scan is only worth it once in a while, a full cache of live tokens would otherwise scan on every miss
+        if (now - this.lastPurgedAt < PURGE_INTERVAL_MILLIS) {
+            return;
+        }
+
+        this.lastPurgedAt = now;
+
+        this.entries.forEach((fingerprint, cached) -> {
+            if (cached.expiresAt() <= now && this.entries.remove(fingerprint, cached)) {
+                this.evictions.increment();
+            }
+        });
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    public int getSize() {
+        return this.entries.size();
+    }
+}
@@ -0,0 +1,23 @@
+package com.app.infrastructure.security.auth;
+
+import com.auth0.jwt.algorithms.Algorithm;
+
+import java.io.File;
+import java.security.KeyFactory;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+
+public class ECAlgorithm {
+    private final Algorithm algorithm;
+
+    public ECAlgorithm(KeyFactory keyFactory, String keysDir) {
+        ECPublicKey publicKey = (ECPublicKey) PemKeys.readPublicKey(keyFactory, keysDir + File.separator + "es256-public-key.pem");
+        ECPrivateKey privateKey = (ECPrivateKey) PemKeys.readPrivateKey(keyFactory, keysDir + File.separator + "es256-private-key.pem");
+
+        this.algorithm = Algorithm.ECDSA256(publicKey, privateKey);
+    }
+
+    public Algorithm getAlgorithm() {
+        return this.algorithm;
+    }
+}
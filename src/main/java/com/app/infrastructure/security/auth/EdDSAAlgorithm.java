@@ -0,0 +1,72 @@
+package com.app.infrastructure.security.auth;
+
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.SignatureGenerationException;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.Base64;
+
+public class EdDSAAlgorithm {
+    private final Algorithm algorithm;
+
+    public EdDSAAlgorithm(KeyFactory keyFactory, String keysDir) {
+        PublicKey publicKey = PemKeys.readPublicKey(keyFactory, keysDir + File.separator + "ed25519-public-key.pem");
+        PrivateKey privateKey = PemKeys.readPrivateKey(keyFactory, keysDir + File.separator + "ed25519-private-key.pem");
+
+        this.algorithm = new Ed25519(publicKey, privateKey);
+    }
+
+    public Algorithm getAlgorithm() {
+        return this.algorithm;
+    }
+
+    // java-jwt ships no EdDSA support, Ed25519 signatures come straight from the JDK provider
+    public static class Ed25519 extends Algorithm {
+        private static final String SIGNATURE_ALGORITHM = "Ed25519";
+
+        private final PublicKey publicKey;
+        private final PrivateKey privateKey;
+
+        public Ed25519(PublicKey publicKey, PrivateKey privateKey) {
+            super("EdDSA", SIGNATURE_ALGORITHM);
+            this.publicKey = publicKey;
+            this.privateKey = privateKey;
+        }
+
+        @Override
+        public void verify(DecodedJWT jwt) throws SignatureVerificationException {
+            try {
+                Signature signature = Signature.getInstance(SIGNATURE_ALGORITHM);
+                signature.initVerify(this.publicKey);
+                signature.update((jwt.getHeader() + "." + jwt.getPayload()).getBytes(StandardCharsets.US_ASCII));
+
+                if (!signature.verify(Base64.getUrlDecoder().decode(jwt.getSignature()))) {
+                    throw new SignatureVerificationException(this);
+                }
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                throw new SignatureVerificationException(this, e);
+            }
+        }
+
+        @Override
+        public byte[] sign(byte[] contentBytes) throws SignatureGenerationException {
+            try {
+                Signature signature = Signature.getInstance(SIGNATURE_ALGORITHM);
+                signature.initSign(this.privateKey);
+                signature.update(contentBytes);
+
+                return signature.sign();
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                throw new SignatureGenerationException(this, e);
+            }
+        }
+    }
+}
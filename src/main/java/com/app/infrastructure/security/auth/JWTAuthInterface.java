@@ -1,13 +1,16 @@
 package com.app.infrastructure.security.auth;
 
 import com.app.application.dto.auth.JwtClaimDTO;
+import com.app.application.dto.auth.TokenClaimsDTO;
 import com.app.infrastructure.security.auth.exception.AuthException;
-import com.auth0.jwt.interfaces.DecodedJWT;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface JWTAuthInterface {
     String createToken(List<JwtClaimDTO> claims) throws AuthException;
-    boolean validateToken(String token);
-    List<JwtClaimDTO> getClaims();
+    String createToken(List<JwtClaimDTO> claims, Instant issuedAt, Instant expiresAt) throws AuthException;
+    boolean validateToken(String token) throws AuthException;
+    TokenClaimsDTO verifyToken(String token) throws AuthException;
+    void invalidate(String token);
 }
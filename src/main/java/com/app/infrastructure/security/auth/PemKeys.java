@@ -0,0 +1,59 @@
+package com.app.infrastructure.security.auth;
+
+import com.app.infrastructure.security.auth.exception.AlgorithmException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+
+public final class PemKeys {
+    private PemKeys() {
+    }
+
+    public static PublicKey readPublicKey(KeyFactory keyFactory, String keyPath) {
+        byte[] publicKeyBytes = extractKeyBytes(keyPath, "PUBLIC KEY");
+
+        try {
+            return keyFactory.generatePublic(new X509EncodedKeySpec(publicKeyBytes));
+        } catch (InvalidKeySpecException e) {
+            throw new AlgorithmException("Failed trying to generate public key: " + e.getMessage());
+        }
+    }
+
+    public static PrivateKey readPrivateKey(KeyFactory keyFactory, String keyPath) {
+        byte[] privateKeyBytes = extractKeyBytes(keyPath, "PRIVATE KEY");
+
+        try {
+            return keyFactory.generatePrivate(new PKCS8EncodedKeySpec(privateKeyBytes));
+        } catch (InvalidKeySpecException e) {
+            throw new AlgorithmException("Failed trying to generate private key: " + e.getMessage());
+        }
+    }
+
+    private static byte[] extractKeyBytes(String keyPath, String type) {
+        byte[] keyPEMBytes;
+
+        try {
+            keyPEMBytes = Files.readAllBytes(Paths.get(keyPath));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        String keyPEM = new String(keyPEMBytes);
+        String pemHeader = "-----BEGIN " + type + "-----";
+        String pemFooter = "-----END " + type + "-----";
+        int start = keyPEM.indexOf(pemHeader) + pemHeader.length();
+        int end = keyPEM.indexOf(pemFooter);
+        keyPEM = keyPEM.substring(start, end);
+        keyPEM = keyPEM.replaceAll("\\s+", "");
+
+        return Base64.getDecoder().decode(keyPEM);
+    }
+}
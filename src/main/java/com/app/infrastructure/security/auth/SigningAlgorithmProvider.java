@@ -0,0 +1,32 @@
+package com.app.infrastructure.security.auth;
+
+import com.app.infrastructure.security.auth.exception.AlgorithmException;
+import com.auth0.jwt.algorithms.Algorithm;
+
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
+
+public class SigningAlgorithmProvider {
+    private final String keysDir;
+
+    public SigningAlgorithmProvider(String keysDir) {
+        this.keysDir = keysDir;
+    }
+
+    public Algorithm get(String name) {
+        return switch (name) {
+            case "RS256" -> new RSAAlgorithm(this.getKeyFactory("RSA"), this.keysDir).getAlgorithm();
+            case "ES256" -> new ECAlgorithm(this.getKeyFactory("EC"), this.keysDir).getAlgorithm();
+            case "EdDSA" -> new EdDSAAlgorithm(this.getKeyFactory("Ed25519"), this.keysDir).getAlgorithm();
+            default -> throw new AlgorithmException("Unsupported signing algorithm: " + name);
+        };
+    }
+
+    private KeyFactory getKeyFactory(String algorithm) {
+        try {
+            return KeyFactory.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new AlgorithmException("Failed trying to instantiate key factory: " + e.getMessage());
+        }
+    }
+}
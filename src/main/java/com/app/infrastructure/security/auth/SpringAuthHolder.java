@@ -1,5 +1,6 @@
 package com.app.infrastructure.security.auth;
 
+import com.app.application.dto.auth.TokenClaimsDTO;
 import com.app.domain.entity.User;
 import com.app.infrastructure.security.auth.exception.AuthException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -10,11 +11,12 @@ public class SpringAuthHolder implements AuthHolderInterface {
     private Authentication auth;
 
     @Override
-    public void setAuth(User authUser, String token) {
+    public void setAuth(User authUser, String token, TokenClaimsDTO claims) {
         UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
                 authUser,
                 token
         );
+        authenticationToken.setDetails(claims);
 
         SecurityContextHolder.getContext().setAuthentication(authenticationToken);
     }
@@ -46,5 +48,16 @@ public class SpringAuthHolder implements AuthHolderInterface {
         return (String) auth.getCredentials();
     }
 
+    @Override
+    public TokenClaimsDTO getClaims() {
+        Authentication auth = this.getAuth();
+
+        if (auth == null) {
+            throw new AuthException("There is no authenticated user");
+        }
+
+        return auth.getDetails() instanceof TokenClaimsDTO claims ? claims : null;
+    }
+
 
 }
@@ -0,0 +1,34 @@
+package com.app.infrastructure.security.auth;
+
+import com.app.infrastructure.security.auth.exception.AuthException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+public final class TokenFingerprint {
+    private TokenFingerprint() {
+    }
+
+    public static byte[] digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return messageDigest.digest(token.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException e) {
+            throw new AuthException("Failed trying to fingerprint token: " + e.getMessage());
+        }
+    }
+
+    public static String of(String token) {
+        return encode(digest(token));
+    }
+
+    public static String encode(byte[] digest) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    public static byte[] decode(String fingerprint) {
+        return Base64.getUrlDecoder().decode(fingerprint);
+    }
+}
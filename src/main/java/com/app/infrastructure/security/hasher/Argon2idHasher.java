@@ -0,0 +1,111 @@
+package com.app.infrastructure.security.hasher;
+
+import com.app.infrastructure.security.hasher.exception.HasherException;
+import org.bouncycastle.crypto.generators.Argon2BytesGenerator;
+import org.bouncycastle.crypto.params.Argon2Parameters;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+public class Argon2idHasher implements HasherInterface {
+    public static final String PREFIX = "$argon2id$";
+
+    private static final int SALT_LENGTH = 16;
+    private static final int HASH_LENGTH = 32;
+
+    private final int memoryKb;
+    private final int iterations;
+    private final int parallelism;
+    private final SecureRandom random = new SecureRandom();
+
+    public Argon2idHasher(int memoryKb, int iterations, int parallelism) {
+        this.memoryKb = memoryKb;
+        this.iterations = iterations;
+        this.parallelism = parallelism;
+    }
+
+    // salts carry the parameters like bcrypt's do, in the phc format "$argon2id$v=19$m=<kb>,t=<iterations>,p=<lanes>$<salt>"
+    @Override
+    public String getSalt() {
+        byte[] salt = new byte[SALT_LENGTH];
+        this.random.nextBytes(salt);
+
+        return PREFIX + "v=19$m=" + this.memoryKb + ",t=" + this.iterations + ",p=" + this.parallelism
+                + "$" + encode(salt);
+    }
+
+    @Override
+    public String getHash(String stringToBeHashed, String salt) {
+        Params params = Params.parse(salt, false);
+
+        return salt + "$" + encode(params.derive(stringToBeHashed));
+    }
+
+    @Override
+    public boolean checkHash(String hash, String rawString) {
+        Params params = Params.parse(hash, true);
+
+        return MessageDigest.isEqual(params.hash(), params.derive(rawString));
+    }
+
+    @Override
+    public boolean needsRehash(String hash) {
+        try {
+            Params params = Params.parse(hash, true);
+
+            return params.memoryKb() != this.memoryKb
+                    || params.iterations() != this.iterations
+                    || params.parallelism() != this.parallelism;
+        } catch (HasherException e) {
+            return true;
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private record Params(int memoryKb, int iterations, int parallelism, byte[] salt, byte[] hash) {
+        static Params parse(String value, boolean withHash) {
+            String[] parts = value.split("\\$");
+
+            if (parts.length != (withHash ? 6 : 5) || !value.startsWith(PREFIX) || !parts[2].equals("v=19")) {
+                throw new HasherException("Invalid argon2id hash.");
+            }
+
+            try {
+                String[] settings = parts[3].split(",");
+
+                return new Params(
+                        Integer.parseInt(settings[0].substring(2)),
+                        Integer.parseInt(settings[1].substring(2)),
+                        Integer.parseInt(settings[2].substring(2)),
+                        Base64.getDecoder().decode(parts[4]),
+                        withHash ? Base64.getDecoder().decode(parts[5]) : null
+                );
+            } catch (RuntimeException e) {
+                throw new HasherException("Invalid argon2id hash.");
+            }
+        }
+
+        byte[] derive(String rawString) {
+            Argon2Parameters parameters = new Argon2Parameters.Builder(Argon2Parameters.ARGON2_id)
+                    .withVersion(Argon2Parameters.ARGON2_VERSION_13)
+                    .withSalt(this.salt)
+                    .withMemoryAsKB(this.memoryKb)
+                    .withIterations(this.iterations)
+                    .withParallelism(this.parallelism)
+                    .build();
+
+            Argon2BytesGenerator generator = new Argon2BytesGenerator();
+            generator.init(parameters);
+
+            byte[] output = new byte[this.hash != null ? this.hash.length : HASH_LENGTH];
+            generator.generateBytes(rawString.getBytes(StandardCharsets.UTF_8), output);
+
+            return output;
+        }
+    }
+}
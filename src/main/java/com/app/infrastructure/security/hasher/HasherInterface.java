@@ -6,4 +6,6 @@ public interface HasherInterface {
     String getHash(String stringToBeHashed, String salt);
 
     boolean checkHash(String hash, String rawString);
+
+    boolean needsRehash(String hash);
 }
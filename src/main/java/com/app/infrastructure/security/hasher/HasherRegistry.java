@@ -0,0 +1,69 @@
+package com.app.infrastructure.security.hasher;
+
+import com.app.infrastructure.security.hasher.exception.HasherException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class HasherRegistry implements HasherInterface {
+    private final HasherInterface primary;
+    private final Map<String, HasherInterface> hashers = new LinkedHashMap<>();
+
+    // new hashes always come from the primary hasher, the others are kept around to verify
+    // passwords stored before it was switched until they get rehashed on login
+    public HasherRegistry(HasherInterface primary) {
+        this.primary = primary;
+    }
+
+    public HasherRegistry register(String prefix, HasherInterface hasher) {
+        this.hashers.put(prefix, hasher);
+
+        return this;
+    }
+
+    @Override
+    public String getSalt() {
+        return this.primary.getSalt();
+    }
+
+    @Override
+    public String getHash(String stringToBeHashed, String salt) {
+        return this.primary.getHash(stringToBeHashed, salt);
+    }
+
+    @Override
+    public boolean checkHash(String hash, String rawString) {
+        return this.getVerifier(hash).checkHash(hash, rawString);
+    }
+
+    @Override
+    public boolean needsRehash(String hash) {
+        HasherInterface verifier = this.findVerifier(hash);
+
+        return verifier != this.primary || this.primary.needsRehash(hash);
+    }
+
+    private HasherInterface getVerifier(String hash) {
+        HasherInterface verifier = this.findVerifier(hash);
+
+        if (verifier == null) {
+            throw new HasherException("Unsupported password hash format.");
+        }
+
+        return verifier;
+    }
+
+    private HasherInterface findVerifier(String hash) {
+        if (hash == null) {
+            return null;
+        }
+
+        for (Map.Entry<String, HasherInterface> entry : this.hashers.entrySet()) {
+            if (hash.startsWith(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,93 @@
+package com.app.infrastructure.security.hasher;
+
+import com.app.infrastructure.security.hasher.exception.HasherException;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+public class Pbkdf2Hasher implements HasherInterface {
+    public static final String PREFIX = "$pbkdf2-sha256$";
+
+    private static final int SALT_LENGTH = 16;
+    private static final int HASH_LENGTH = 32;
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+
+    public Pbkdf2Hasher(int iterations) {
+        this.iterations = iterations;
+    }
+
+    // salts carry the iteration count, in the phc format "$pbkdf2-sha256$i=<iterations>$<salt>"
+    @Override
+    public String getSalt() {
+        byte[] salt = new byte[SALT_LENGTH];
+        this.random.nextBytes(salt);
+
+        return PREFIX + "i=" + this.iterations + "$" + encode(salt);
+    }
+
+    @Override
+    public String getHash(String stringToBeHashed, String salt) {
+        Params params = Params.parse(salt, false);
+
+        return salt + "$" + encode(params.derive(stringToBeHashed));
+    }
+
+    @Override
+    public boolean checkHash(String hash, String rawString) {
+        Params params = Params.parse(hash, true);
+
+        return MessageDigest.isEqual(params.hash(), params.derive(rawString));
+    }
+
+    @Override
+    public boolean needsRehash(String hash) {
+        try {
+            return Params.parse(hash, true).iterations() != this.iterations;
+        } catch (HasherException e) {
+            return true;
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private record Params(int iterations, byte[] salt, byte[] hash) {
+        static Params parse(String value, boolean withHash) {
+            String[] parts = value.split("\\$");
+
+            if (parts.length != (withHash ? 5 : 4) || !value.startsWith(PREFIX) || !parts[2].startsWith("i=")) {
+                throw new HasherException("Invalid pbkdf2 hash.");
+            }
+
+            try {
+                return new Params(
+                        Integer.parseInt(parts[2].substring(2)),
+                        Base64.getDecoder().decode(parts[3]),
+                        withHash ? Base64.getDecoder().decode(parts[4]) : null
+                );
+            } catch (RuntimeException e) {
+                throw new HasherException("Invalid pbkdf2 hash.");
+            }
+        }
+
+        byte[] derive(String rawString) {
+            int length = this.hash != null ? this.hash.length : HASH_LENGTH;
+            PBEKeySpec spec = new PBEKeySpec(rawString.toCharArray(), this.salt, this.iterations, length * 8);
+
+            try {
+                return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+            } catch (GeneralSecurityException e) {
+                throw new HasherException("Failed trying to derive pbkdf2 hash: " + e.getMessage());
+            } finally {
+                spec.clearPassword();
+            }
+        }
+    }
+}
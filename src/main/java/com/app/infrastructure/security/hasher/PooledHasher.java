@@ -0,0 +1,148 @@
+package com.app.infrastructure.security.hasher;
+
+import com.app.infrastructure.security.hasher.exception.HasherOverloadedException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public class PooledHasher implements HasherInterface {
+    private final HasherInterface hasher;
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final long waitTimeoutMillis;
+
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+
+    // hashing is pure cpu work, so it runs on its own fixed pool and overflow is refused right away
+    // instead of piling up on request threads. a request thread waits at most waitTimeoutMillis for its
+    // result, so a slow pool answers 503 rather than holding servlet threads behind it
+    public PooledHasher(HasherInterface hasher, int threads, int queueCapacity, long retryAfterSeconds, long waitTimeoutMillis) {
+        this.hasher = hasher;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "hasher");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @Override
+    public String getSalt() {
+        return this.hasher.getSalt();
+    }
+
+    @Override
+    public String getHash(String stringToBeHashed, String salt) {
+        return this.await(this.getHashAsync(stringToBeHashed, salt));
+    }
+
+    @Override
+    public boolean checkHash(String hash, String rawString) {
+        return this.await(this.checkHashAsync(hash, rawString));
+    }
+
+    @Override
+    public boolean needsRehash(String hash) {
+        return this.hasher.needsRehash(hash);
+    }
+
+    public CompletableFuture<String> getHashAsync(String stringToBeHashed, String salt) {
+        return this.submit(() -> this.hasher.getHash(stringToBeHashed, salt));
+    }
+
+    public CompletableFuture<Boolean> checkHashAsync(String hash, String rawString) {
+        return this.submit(() -> this.hasher.checkHash(hash, rawString));
+    }
+
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long startedAt = System.nanoTime();
+                this.queueNanos.add(startedAt - submittedAt);
+
+                try {
+                    return task.get();
+                } finally {
+                    this.hashNanos.add(System.nanoTime() - startedAt);
+                    this.completed.increment();
+                }
+            }, this.executor);
+        } catch (RejectedExecutionException e) {
+            throw this.overloaded();
+        }
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(this.waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // a task still in the queue is skipped once cancelled, one already hashing runs to completion
+            future.cancel(false);
+            throw this.overloaded();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw this.overloaded();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private HasherOverloadedException overloaded() {
+        this.rejections.increment();
+        return new HasherOverloadedException("Too many password operations in progress, retry later.", this.retryAfterSeconds);
+    }
+
+    public int getQueueDepth() {
+        return this.executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return this.executor.getActiveCount();
+    }
+
+    public long getRejections() {
+        return this.rejections.sum();
+    }
+
+    public long getCompleted() {
+        return this.completed.sum();
+    }
+
+    public double getQueueSeconds() {
+        return this.queueNanos.sum() / 1e9;
+    }
+
+    public double getHashSeconds() {
+        return this.hashNanos.sum() / 1e9;
+    }
+}
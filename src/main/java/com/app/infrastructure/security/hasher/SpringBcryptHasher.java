@@ -2,11 +2,47 @@ package com.app.infrastructure.security.hasher;
 
 import org.springframework.security.crypto.bcrypt.BCrypt;
 
+import java.time.Duration;
+
 public class SpringBcryptHasher implements HasherInterface {
+    private static final int DEFAULT_COST = 10;
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    private final int cost;
+
+    public SpringBcryptHasher() {
+        this(DEFAULT_COST);
+    }
+
+    public SpringBcryptHasher(int cost) {
+        this.cost = cost;
+    }
+
+    // picks the highest cost whose hash still fits the target on this machine, never going below minCost
+    public static int calibrate(Duration target, int minCost, int maxCost) {
+        long targetNanos = target.toNanos();
+        int chosen = minCost;
+
+        // the first hash pays for class loading and jit warm-up, so it is left out of the measurement
+        BCrypt.hashpw(CALIBRATION_PASSWORD, BCrypt.gensalt(minCost));
+
+        for (int cost = minCost; cost <= maxCost; cost++) {
+            long startedAt = System.nanoTime();
+            BCrypt.hashpw(CALIBRATION_PASSWORD, BCrypt.gensalt(cost));
+
+            if (System.nanoTime() - startedAt > targetNanos) {
+                break;
+            }
+
+            chosen = cost;
+        }
+
+        return chosen;
+    }
 
     @Override
     public String getSalt() {
-        return BCrypt.gensalt();
+        return BCrypt.gensalt(this.cost);
     }
 
     @Override
@@ -18,4 +54,22 @@ public class SpringBcryptHasher implements HasherInterface {
     public boolean checkHash(String hash, String rawString) {
         return BCrypt.checkpw(rawString, hash);
     }
+
+    @Override
+    public boolean needsRehash(String hash) {
+        // bcrypt hashes look like "$2a$10$<salt and hash>", with the cost as the two digits after the version
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$') {
+            return true;
+        }
+
+        try {
+            return Integer.parseInt(hash.substring(4, 6)) != this.cost;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    public int getCost() {
+        return this.cost;
+    }
 }
@@ -0,0 +1,7 @@
+package com.app.infrastructure.security.hasher.exception;
+
+public class HasherException extends RuntimeException {
+    public HasherException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.app.infrastructure.security.hasher.exception;
+
+public class HasherOverloadedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public HasherOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return this.retryAfterSeconds;
+    }
+}
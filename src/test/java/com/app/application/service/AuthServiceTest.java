@@ -1,14 +1,20 @@
 package com.app.application.service;
 
+import com.app.application.dto.auth.IssuedTokensDTO;
 import com.app.application.dto.auth.JwtClaimDTO;
 import com.app.application.dto.auth.LoginRequestDTO;
 import com.app.application.dto.auth.LoginResponseDTO;
 import com.app.application.dto.auth.RefreshAuthRequestDTO;
+import com.app.application.dto.auth.TokenClaimsDTO;
+import com.app.application.dto.authorization.RoleDTO;
 import com.app.application.dto.user.UserResponseWithPasswordDTO;
 import com.app.application.exception.ResourceNotFound;
+import com.app.application.exception.TooManyLoginAttemptsException;
 import com.app.application.exception.UnauthenticatedException;
+import com.app.application.util.authentication.LoginThrottle;
+import com.app.application.util.authentication.TokenRevocationInterface;
+import com.app.application.util.authorization.PermissionClaims;
 import com.app.domain.entity.User;
-import com.app.infrastructure.cache.CacheInterface;
 import com.app.infrastructure.security.auth.AuthHolderInterface;
 import com.app.infrastructure.security.auth.JWTAuthInterface;
 import com.app.infrastructure.security.auth.exception.AuthException;
@@ -16,23 +22,29 @@ import com.app.infrastructure.security.hasher.HasherInterface;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
-import java.text.SimpleDateFormat;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class AuthServiceTest {
+    private static final Instant NOW = Instant.parse("2024-04-04T00:00:00Z");
+
     @Mock
     private JWTAuthInterface auth;
 
+    @Mock
+    private JWTAuthInterface refreshAuth;
+
     @Mock
     private UserService userService;
 
@@ -40,17 +52,55 @@ public class AuthServiceTest {
     private HasherInterface hasher;
 
     @Mock
-    private CacheInterface cache;
+    private AuthHolderInterface authHolder;
 
     @Mock
-    private AuthHolderInterface authHolder;
+    private TokenRevocationInterface tokenRevocation;
+
+    @Mock
+    private Clock clock;
+
+    @Mock
+    private Executor rehashExecutor;
+
+    @Mock
+    private LoginThrottle loginThrottle;
+
+    @Mock
+    private UserRoleService userRoleService;
+
+    @Mock
+    private PermissionClaims permissionClaims;
 
-    @InjectMocks
     private AuthService authService;
 
     @BeforeEach
     public void init() {
         MockitoAnnotations.openMocks(this);
+
+        this.authService = new AuthService(
+                auth,
+                refreshAuth,
+                userService,
+                hasher,
+                authHolder,
+                tokenRevocation,
+                clock,
+                rehashExecutor,
+                loginThrottle,
+                userRoleService,
+                permissionClaims
+        );
+
+        when(clock.instant()).thenReturn(NOW);
+        when(clock.millis()).thenReturn(NOW.toEpochMilli());
+
+        when(tokenRevocation.issue(anyLong(), any())).thenAnswer(
+                invocation -> invocation.<Function<List<JwtClaimDTO>, IssuedTokensDTO>>getArgument(1).apply(List.of())
+        );
+        when(tokenRevocation.rotate(anyLong(), anyString(), any())).thenAnswer(
+                invocation -> invocation.<Function<List<JwtClaimDTO>, IssuedTokensDTO>>getArgument(2).apply(List.of())
+        );
     }
 
     @Test
@@ -67,32 +117,136 @@ public class AuthServiceTest {
 
         when(userService.getUserForLogin("jdoe@domain.com")).thenReturn(foundUser);
         when(hasher.checkHash("some_hashed_password", "Password1")).thenReturn(true);
-        when(cache.get(foundUser.id().toString() + "_current_token")).thenReturn(null);
-
-        when(auth.createToken(any(ArrayList.class))).thenReturn("valid_json_web_token");
+        when(auth.createToken(any(ArrayList.class), any(Instant.class), any(Instant.class))).thenReturn("valid_json_web_token");
 
         LoginRequestDTO loginDTO = new LoginRequestDTO("jdoe@domain.com", "Password1");
-        authService.attemptLogin(loginDTO);
+        authService.attemptLogin(loginDTO, "127.0.0.1");
 
-        verify(cache).set(foundUser.id() + "_current_token", "valid_json_web_token");
+        verify(tokenRevocation).issue(eq(1L), any());
 
         ArgumentCaptor<ArrayList<JwtClaimDTO>> argument = ArgumentCaptor.forClass(ArrayList.class);
+        ArgumentCaptor<Instant> issuedAt = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> expiresAt = ArgumentCaptor.forClass(Instant.class);
+
+        verify(auth, times(1)).createToken(argument.capture(), issuedAt.capture(), expiresAt.capture());
+
+        List<JwtClaimDTO> accessClaims = argument.getValue();
+
+        assertEquals(accessClaims.getFirst().key(), "userId");
+        assertEquals(accessClaims.getFirst().value(), foundUser.id().toString());
+        assertEquals(NOW, issuedAt.getValue());
+        assertEquals(NOW.plus(Duration.ofHours(1)), expiresAt.getValue());
+
+        verify(refreshAuth, times(1)).createToken(anyList(), eq(NOW), eq(NOW.plus(Duration.ofHours(4))));
+        verify(userRoleService, never()).getUserRoles(anyLong());
+    }
+
+    @Test
+    public void shouldEmbedPermissionsInAccessToken_whenClaimsAreEnabled() {
+        UserResponseWithPasswordDTO foundUser = new UserResponseWithPasswordDTO(
+                1L,
+                "John Doe",
+                "jdoe@domain.com",
+                "some_hashed_password",
+                "2024-04-04 00:00:00",
+                "2024-04-04 00:00:00",
+                null
+        );
+        List<RoleDTO> roles = List.of(new RoleDTO(1L, "common", List.of()));
+
+        when(userService.getUserForLogin("jdoe@domain.com")).thenReturn(foundUser);
+        when(hasher.checkHash("some_hashed_password", "Password1")).thenReturn(true);
+        when(permissionClaims.isEnabled()).thenReturn(true);
+        when(userRoleService.getUserRoles(1L)).thenReturn(roles);
+        when(permissionClaims.toClaims(roles)).thenReturn(List.of(new JwtClaimDTO("permissions", "Ag")));
+
+        authService.attemptLogin(new LoginRequestDTO("jdoe@domain.com", "Password1"), "127.0.0.1");
+
+        ArgumentCaptor<ArrayList<JwtClaimDTO>> accessClaims = ArgumentCaptor.forClass(ArrayList.class);
+        verify(auth).createToken(accessClaims.capture(), any(Instant.class), any(Instant.class));
+
+        assertTrue(accessClaims.getValue().contains(new JwtClaimDTO("permissions", "Ag")));
+
+        ArgumentCaptor<List<JwtClaimDTO>> refreshClaims = ArgumentCaptor.forClass(List.class);
+        verify(refreshAuth).createToken(refreshClaims.capture(), any(Instant.class), any(Instant.class));
+
+        assertTrue(refreshClaims.getValue().stream().noneMatch(claim -> claim.key().equals("permissions")));
+    }
+
+    @Test
+    public void shouldRehashInBackground_whenStoredCostDiffers() {
+        UserResponseWithPasswordDTO foundUser = new UserResponseWithPasswordDTO(
+                1L,
+                "John Doe",
+                "jdoe@domain.com",
+                "some_hashed_password",
+                "2024-04-04 00:00:00",
+                "2024-04-04 00:00:00",
+                null
+        );
+
+        when(userService.getUserForLogin("jdoe@domain.com")).thenReturn(foundUser);
+        when(hasher.checkHash("some_hashed_password", "Password1")).thenReturn(true);
+        when(hasher.needsRehash("some_hashed_password")).thenReturn(true);
+
+        authService.attemptLogin(new LoginRequestDTO("jdoe@domain.com", "Password1"), "127.0.0.1");
+
+        ArgumentCaptor<Runnable> rehash = ArgumentCaptor.forClass(Runnable.class);
+        verify(rehashExecutor).execute(rehash.capture());
+        verify(userService, never()).rehashPassword(anyLong(), anyString(), anyString());
+
+        rehash.getValue().run();
+
+        verify(userService).rehashPassword(1L, "some_hashed_password", "Password1");
+    }
+
+    @Test
+    public void shouldNotRehash_whenStoredCostMatches() {
+        UserResponseWithPasswordDTO foundUser = new UserResponseWithPasswordDTO(
+                1L,
+                "John Doe",
+                "jdoe@domain.com",
+                "some_hashed_password",
+                "2024-04-04 00:00:00",
+                "2024-04-04 00:00:00",
+                null
+        );
+
+        when(userService.getUserForLogin("jdoe@domain.com")).thenReturn(foundUser);
+        when(hasher.checkHash("some_hashed_password", "Password1")).thenReturn(true);
+        when(hasher.needsRehash("some_hashed_password")).thenReturn(false);
+
+        authService.attemptLogin(new LoginRequestDTO("jdoe@domain.com", "Password1"), "127.0.0.1");
+
+        verify(rehashExecutor, never()).execute(any());
+    }
+
+    @Test
+    public void shouldEmbedRevocationClaimsInAccessToken() {
+        UserResponseWithPasswordDTO foundUser = new UserResponseWithPasswordDTO(
+                1L,
+                "John Doe",
+                "jdoe@domain.com",
+                "some_hashed_password",
+                "2024-04-04 00:00:00",
+                "2024-04-04 00:00:00",
+                null
+        );
 
-        verify(auth, times(2)).createToken(argument.capture());
+        when(userService.getUserForLogin("jdoe@domain.com")).thenReturn(foundUser);
+        when(hasher.checkHash("some_hashed_password", "Password1")).thenReturn(true);
+        when(tokenRevocation.issue(eq(1L), any())).thenAnswer(
+                invocation -> invocation.<Function<List<JwtClaimDTO>, IssuedTokensDTO>>getArgument(1)
+                        .apply(List.of(new JwtClaimDTO("generation", "3")))
+        );
+        when(auth.createToken(any(), any(), any())).thenReturn("valid_access_token");
 
-        Date currentDate = new Date();
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSSSSS");
-        String formattedDate = dateFormat.format(currentDate);
+        authService.attemptLogin(new LoginRequestDTO("jdoe@domain.com", "Password1"), "127.0.0.1");
 
-        List<JwtClaimDTO> claims = new ArrayList<>();
-        claims.add(new JwtClaimDTO("userId", foundUser.id().toString()));
-        claims.add(new JwtClaimDTO("createdAt", formattedDate));
-        claims.add(new JwtClaimDTO("expiresAt", formattedDate));
+        ArgumentCaptor<ArrayList<JwtClaimDTO>> argument = ArgumentCaptor.forClass(ArrayList.class);
+        verify(auth).createToken(argument.capture(), any(), any());
 
-        assertEquals(argument.getValue().getFirst().key(), claims.getFirst().key());
-        assertEquals(argument.getValue().getFirst().value(), claims.getFirst().value());
-        assertEquals(argument.getValue().get(1).key(), claims.get(1).key());
-        assertEquals(argument.getValue().get(2).key(), claims.get(2).key());
+        assertTrue(argument.getValue().contains(new JwtClaimDTO("generation", "3")));
     }
 
     @Test
@@ -101,7 +255,7 @@ public class AuthServiceTest {
 
         LoginRequestDTO loginDTO = new LoginRequestDTO("jdoe@domain.com", "Password1");
 
-        assertThrows(UnauthenticatedException.class, () -> authService.attemptLogin(loginDTO));
+        assertThrows(UnauthenticatedException.class, () -> authService.attemptLogin(loginDTO, "127.0.0.1"));
     }
 
     @Test
@@ -120,11 +274,23 @@ public class AuthServiceTest {
         when(hasher.checkHash("some_hashed_password", "Password1")).thenReturn(false);
 
         LoginRequestDTO loginDTO = new LoginRequestDTO("jdoe@domain.com", "Password1");
-        assertThrows(UnauthenticatedException.class, () -> authService.attemptLogin(loginDTO), "Wrong credentials.");
+        assertThrows(UnauthenticatedException.class, () -> authService.attemptLogin(loginDTO, "127.0.0.1"), "Wrong credentials.");
+        verify(loginThrottle).recordFailure("jdoe@domain.com", "127.0.0.1");
     }
 
     @Test
-    public void shouldBlacklistCurrentUserToken_whenCreatingNew() {
+    public void throttledLoginShouldNotReachDatabaseOrHasher() {
+        doThrow(new TooManyLoginAttemptsException("Too many failed login attempts, retry later.", 30))
+                .when(loginThrottle).check("jdoe@domain.com", "127.0.0.1");
+
+        LoginRequestDTO loginDTO = new LoginRequestDTO("jdoe@domain.com", "Password1");
+
+        assertThrows(TooManyLoginAttemptsException.class, () -> authService.attemptLogin(loginDTO, "127.0.0.1"));
+        verifyNoInteractions(userService, hasher);
+    }
+
+    @Test
+    public void shouldIssueTokensThroughRevocationMode() {
         UserResponseWithPasswordDTO foundUser = new UserResponseWithPasswordDTO(
                 1L,
                 "John Doe",
@@ -137,54 +303,56 @@ public class AuthServiceTest {
 
         when(userService.getUserForLogin("jdoe@domain.com")).thenReturn(foundUser);
         when(hasher.checkHash("some_hashed_password", "Password1")).thenReturn(true);
-        when(cache.get(foundUser.id().toString() + "_current_token")).thenReturn("current_valid_jwt");
-        when(cache.add("auth_tokens_blacklist", "current_valid_jwt")).thenReturn(true);
-
-        when(auth.createToken(any())).thenReturn("valid_access_token");
+        when(auth.createToken(any(), any(), any())).thenReturn("valid_access_token");
+        when(refreshAuth.createToken(any(), any(), any())).thenReturn("valid_refresh_token");
 
         LoginRequestDTO loginDTO = new LoginRequestDTO("jdoe@domain.com", "Password1");
-        LoginResponseDTO loginResponseDTO = authService.attemptLogin(loginDTO);
+        LoginResponseDTO loginResponseDTO = authService.attemptLogin(loginDTO, "127.0.0.1");
         assertEquals(loginResponseDTO.accessToken(), "valid_access_token");
+        assertEquals(loginResponseDTO.refreshToken(), "valid_refresh_token");
+
+        ArgumentCaptor<Function<List<JwtClaimDTO>, IssuedTokensDTO>> signer = ArgumentCaptor.forClass(Function.class);
+        verify(tokenRevocation).issue(eq(1L), signer.capture());
 
-        verify(cache).set(foundUser.id() + "_current_token", "valid_access_token");
+        IssuedTokensDTO signed = signer.getValue().apply(List.of());
+        assertEquals(NOW.plus(Duration.ofHours(1)).getEpochSecond(), signed.accessExpiresAt());
+        assertEquals(NOW.plus(Duration.ofHours(4)).getEpochSecond(), signed.refreshExpiresAt());
     }
 
     @Test
     public void shouldLogout_withValidToken() {
         when(this.authHolder.getToken()).thenReturn("jwt_token");
-        when(this.cache.add("auth_tokens_blacklist", "jwt_token")).thenReturn(true);
+        when(this.authHolder.getUser()).thenReturn(new User(1L, "John Doe", "jdoe@domain.com"));
 
         boolean loggedOut = authService.logout();
 
         assertTrue(loggedOut);
+        verify(tokenRevocation).revoke(1L, "jwt_token");
+        verify(auth).invalidate("jwt_token");
     }
 
     @Test
     public void shouldRefreshToken() {
         when(authHolder.getUser()).thenReturn(new User(1L, "John Doe", "jdoe@domain.com"));
-        when(cache.get(anyString())).thenReturn("valid_refresh_token");
-        when(auth.validateToken(anyString())).thenReturn(true);
-
-        List<JwtClaimDTO> jwtClaimDTOS = getJwtClaimDTOS();
-
-        when(auth.getClaims()).thenReturn(jwtClaimDTOS);
-        when(cache.get("1_current_token")).thenReturn("user_1_cached_current_token");
-
-        when(auth.createToken(any())).thenReturn("new_access_token");
-        when(auth.createToken(any())).thenReturn("new_refresh_token");
+        when(refreshAuth.verifyToken(anyString())).thenReturn(getTokenClaims());
+        when(auth.createToken(any(), any(), any())).thenReturn("new_access_token");
+        when(refreshAuth.createToken(any(), any(), any())).thenReturn("new_refresh_token");
 
         RefreshAuthRequestDTO refreshAuthRequestDTO = new RefreshAuthRequestDTO("valid_refresh_token");
         LoginResponseDTO loginResponseDTO = authService.refreshToken(refreshAuthRequestDTO);
 
-        verify(cache, times(2)).get(anyString());
-        verify(cache, times(2)).set(anyString(), anyString());
-        verify(cache).add("auth_tokens_blacklist", "user_1_cached_current_token");
+        assertEquals("new_access_token", loginResponseDTO.accessToken());
+        assertEquals("new_refresh_token", loginResponseDTO.refreshToken());
+        verify(tokenRevocation).rotate(eq(1L), eq("valid_refresh_token"), any());
+        verify(tokenRevocation, never()).issue(anyLong(), any());
     }
 
     @Test
     public void shouldNotRefreshToken_withoutRefreshTokenCached() {
         when(authHolder.getUser()).thenReturn(new User(1L, "John Doe", "jdoe@domain.com"));
-        when(cache.get(anyString())).thenReturn(null);
+        when(refreshAuth.verifyToken(anyString())).thenReturn(getTokenClaims());
+        when(tokenRevocation.rotate(anyLong(), anyString(), any()))
+                .thenThrow(new AuthException("User does not have a refresh token stored."));
 
         RefreshAuthRequestDTO refreshAuthRequestDTO = new RefreshAuthRequestDTO("valid_refresh_token");
         AuthException authException = assertThrows(AuthException.class, () -> authService.refreshToken(refreshAuthRequestDTO));
@@ -195,7 +363,8 @@ public class AuthServiceTest {
     @Test
     public void shouldNotRefreshToken_withWrongRefreshToken() {
         when(authHolder.getUser()).thenReturn(new User(1L, "John Doe", "jdoe@domain.com"));
-        when(cache.get(anyString())).thenReturn("valid_cached_refresh_token");
+        when(refreshAuth.verifyToken(anyString())).thenReturn(getTokenClaims());
+        when(tokenRevocation.rotate(anyLong(), anyString(), any())).thenThrow(new AuthException("Invalid refresh token."));
 
         RefreshAuthRequestDTO refreshAuthRequestDTO = new RefreshAuthRequestDTO("wrong_refresh_token");
         AuthException authException = assertThrows(AuthException.class, () -> authService.refreshToken(refreshAuthRequestDTO));
@@ -206,88 +375,33 @@ public class AuthServiceTest {
     @Test
     public void shouldNotRefreshToken_withoutExpirationClaim() {
         when(authHolder.getUser()).thenReturn(new User(1L, "John Doe", "jdoe@domain.com"));
-        when(cache.get(anyString())).thenReturn("valid_cached_refresh_token");
 
-        when(auth.getClaims()).thenReturn(new ArrayList<>());
+        when(refreshAuth.verifyToken(anyString())).thenReturn(new TokenClaimsDTO(1L, "refresh", null, null, null, null));
 
         RefreshAuthRequestDTO refreshAuthRequestDTO = new RefreshAuthRequestDTO("valid_cached_refresh_token");
         AuthException authException = assertThrows(AuthException.class, () -> authService.refreshToken(refreshAuthRequestDTO));
 
         assertEquals("Token's expiration not set.", authException.getMessage());
-    }
-
-    @Test
-    public void shouldNotRefreshToken_withInvalidExpiration() {
-        when(authHolder.getUser()).thenReturn(new User(1L, "John Doe", "jdoe@domain.com"));
-        when(cache.get(anyString())).thenReturn("valid_refresh_token");
-        when(auth.validateToken(anyString())).thenReturn(true);
-
-        List<JwtClaimDTO> jwtClaimDTOS = getJwtClaimDTOSWithInvalid();
-
-        when(auth.getClaims()).thenReturn(jwtClaimDTOS);
-
-        RefreshAuthRequestDTO refreshAuthRequestDTO = new RefreshAuthRequestDTO("valid_refresh_token");
-        AuthException authException = assertThrows(AuthException.class, () -> authService.refreshToken(refreshAuthRequestDTO));
-
-        assertEquals("Date parsing failed.", authException.getMessage());
+        verify(tokenRevocation, never()).rotate(anyLong(), anyString(), any());
     }
 
     @Test
     public void shouldNotRefreshToken_withExpiredToken() {
         when(authHolder.getUser()).thenReturn(new User(1L, "John Doe", "jdoe@domain.com"));
-        when(cache.get(anyString())).thenReturn("valid_refresh_token");
-        when(auth.validateToken(anyString())).thenReturn(true);
-
-        List<JwtClaimDTO> jwtClaimDTOS = getJwtClaimDTOSWithExpired();
-
-        when(auth.getClaims()).thenReturn(jwtClaimDTOS);
+        when(refreshAuth.verifyToken(anyString())).thenReturn(getTokenClaimsWithExpired());
 
         RefreshAuthRequestDTO refreshAuthRequestDTO = new RefreshAuthRequestDTO("valid_refresh_token");
         AuthException authException = assertThrows(AuthException.class, () -> authService.refreshToken(refreshAuthRequestDTO));
 
         assertEquals("Provided token is expired.", authException.getMessage());
+        verify(tokenRevocation, never()).rotate(anyLong(), anyString(), any());
     }
 
-    private List<JwtClaimDTO> getJwtClaimDTOS() {
-        List<JwtClaimDTO> jwtClaimDTOS = new ArrayList<>();
-
-        Date currentDate = new Date();
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSSSSS");
-
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(currentDate);
-
-        calendar.add(Calendar.YEAR, 1000);
-
-        Date expirationDate = calendar.getTime();
-        String formattedExpirationDate = dateFormat.format(expirationDate);
-
-        jwtClaimDTOS.add(new JwtClaimDTO("expiresAt", formattedExpirationDate));
-        return jwtClaimDTOS;
-    }
-
-    private List<JwtClaimDTO> getJwtClaimDTOSWithExpired() {
-        List<JwtClaimDTO> jwtClaimDTOS = new ArrayList<>();
-
-        Date currentDate = new Date();
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSSSSS");
-
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(currentDate);
-
-        calendar.add(Calendar.YEAR, -1000);
-
-        Date expirationDate = calendar.getTime();
-        String formattedExpirationDate = dateFormat.format(expirationDate);
-
-        jwtClaimDTOS.add(new JwtClaimDTO("expiresAt", formattedExpirationDate));
-        return jwtClaimDTOS;
+    private TokenClaimsDTO getTokenClaims() {
+        return new TokenClaimsDTO(1L, "refresh", NOW.getEpochSecond(), NOW.plus(Duration.ofHours(4)).getEpochSecond(), null, null);
     }
 
-    private List<JwtClaimDTO> getJwtClaimDTOSWithInvalid() {
-        List<JwtClaimDTO> jwtClaimDTOS = new ArrayList<>();
-
-        jwtClaimDTOS.add(new JwtClaimDTO("expiresAt", "not-a-date"));
-        return jwtClaimDTOS;
+    private TokenClaimsDTO getTokenClaimsWithExpired() {
+        return new TokenClaimsDTO(1L, "refresh", NOW.minus(Duration.ofHours(5)).getEpochSecond(), NOW.minus(Duration.ofHours(1)).getEpochSecond(), null, null);
     }
 }
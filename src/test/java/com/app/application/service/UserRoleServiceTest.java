@@ -3,14 +3,21 @@ package com.app.application.service;
 import com.app.application.dto.authorization.PermissionDTO;
 import com.app.application.dto.authorization.RoleDTO;
 import com.app.application.exception.ResourceNotFound;
+import com.app.application.util.authentication.PrincipalCache;
+import com.app.application.util.authentication.TokenRevocationInterface;
+import com.app.application.util.authorization.PermissionCache;
+import com.app.application.util.authorization.PermissionClaims;
+import com.app.application.util.authorization.RoleCatalog;
 import com.app.infrastructure.persistence.entity.Permission;
 import com.app.infrastructure.persistence.entity.Role;
 import com.app.infrastructure.persistence.entity.User;
+import com.app.infrastructure.persistence.exceptions.AssociationTargetsNotFoundException;
+import com.app.infrastructure.persistence.exceptions.EntityNotFoundException;
+import com.app.infrastructure.persistence.repository.FetchPlans;
 import com.app.infrastructure.persistence.repository.RepositoryInterface;
 import com.app.infrastructure.persistence.repository.spring.SpringRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentCaptor;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -25,6 +32,16 @@ public class UserRoleServiceTest {
 
     private RepositoryInterface<Role> roleRepository;
 
+    private PrincipalCache principalCache;
+
+    private PermissionCache permissionCache;
+
+    private PermissionClaims permissionClaims;
+
+    private TokenRevocationInterface tokenRevocation;
+
+    private RoleCatalog roleCatalog;
+
     private UserRoleService userRoleService;
 
     @BeforeEach
@@ -37,7 +54,21 @@ public class UserRoleServiceTest {
         roleRepository.setEntity(Role.class);
         this.roleRepository = roleRepository;
 
-        this.userRoleService = new UserRoleService(userRepository, roleRepository);
+        this.principalCache = mock(PrincipalCache.class);
+        this.permissionCache = mock(PermissionCache.class);
+        this.permissionClaims = mock(PermissionClaims.class);
+        this.tokenRevocation = mock(TokenRevocationInterface.class);
+        this.roleCatalog = mock(RoleCatalog.class);
+
+        this.userRoleService = new UserRoleService(
+                userRepository,
+                roleRepository,
+                principalCache,
+                permissionCache,
+                permissionClaims,
+                tokenRevocation,
+                roleCatalog
+        );
     }
 
 
@@ -45,12 +76,14 @@ public class UserRoleServiceTest {
     public void shouldGetUserRoles() {
         User foundUser = mock(User.class);
 
-        when(userRepository.getById(1L)).thenReturn(foundUser);
+        when(userRepository.getById(eq(1L), anyString())).thenReturn(foundUser);
 
         Set<Role> roles = new HashSet<>();
-        roles.add(new Role(1L, "foo"));
+        Role role = new Role(1L, "foo");
+        roles.add(role);
 
         when(foundUser.getRoles()).thenReturn(roles);
+        when(roleRepository.getById(1L, FetchPlans.ROLE_PERMISSIONS)).thenReturn(role);
 
         List<RoleDTO> userRoles = this.userRoleService.getUserRoles(1L);
 
@@ -64,7 +97,7 @@ public class UserRoleServiceTest {
     public void shouldGetUserRolesWithPermissions() {
         User foundUser = mock(User.class);
 
-        when(userRepository.getById(1L)).thenReturn(foundUser);
+        when(userRepository.getById(eq(1L), anyString())).thenReturn(foundUser);
 
         Role role = mock(Role.class);
         Set<Role> roles = new HashSet<>();
@@ -74,8 +107,10 @@ public class UserRoleServiceTest {
         Permission foundPermission = new Permission(1L, "foo");
         permissions.add(foundPermission);
 
+        when(role.getId()).thenReturn(1L);
         when(role.getPermissions()).thenReturn(permissions);
         when(foundUser.getRoles()).thenReturn(roles);
+        when(roleRepository.getById(1L, FetchPlans.ROLE_PERMISSIONS)).thenReturn(role);
 
         List<RoleDTO> userRoles = this.userRoleService.getUserRoles(1L);
 
@@ -89,7 +124,7 @@ public class UserRoleServiceTest {
 
     @Test
     public void shouldNotGetUsers_whenUserNotFound() {
-        when(userRepository.getById(1L)).thenReturn(null);
+        when(userRepository.getById(eq(1L), anyString())).thenReturn(null);
 
         ResourceNotFound exception = assertThrows(ResourceNotFound.class, () -> this.userRoleService.getUserRoles(1L));
 
@@ -98,57 +133,87 @@ public class UserRoleServiceTest {
 
     @Test
     public void shouldSyncUserRoles() {
-        User foundUser = mock(User.class);
-        when(userRepository.getById(1L)).thenReturn(foundUser);
-
         List<RoleDTO> rolesDTOs = new ArrayList<>();
         rolesDTOs.add(new RoleDTO(1L, "foo", null));
         rolesDTOs.add(new RoleDTO(2L, "bar", null));
         rolesDTOs.add(new RoleDTO(3L, "baz", null));
+        rolesDTOs.add(new RoleDTO(1L, "foo", null));
 
-        Role foundRole1 = mock(Role.class);
-        when(roleRepository.getById(1L)).thenReturn(foundRole1);
-
-        Role foundRole2 = mock(Role.class);
-        when(roleRepository.getById(2L)).thenReturn(foundRole2);
-
-        when(roleRepository.getById(3L)).thenReturn(null);
+        Role foundRole1 = new Role(1L, "foo");
+        foundRole1.getPermissions().add(new Permission(10L, "lorem"));
+        foundRole1.getPermissions().add(new Permission(20L, "ipsum"));
 
-        Set<Role> foundRoles = mock(HashSet.class);
-        when(foundUser.getRoles()).thenReturn(foundRoles);
+        Role foundRole2 = new Role(2L, "bar");
 
-        Set<Permission> role1FoundPermissions = new HashSet<>();
-        role1FoundPermissions.add(new Permission(10L, "lorem"));
-        role1FoundPermissions.add(new Permission(20L, "ipsum"));
-        when(foundRole1.getPermissions()).thenReturn(role1FoundPermissions);
-        when(foundRole2.getPermissions()).thenReturn(role1FoundPermissions);
+        when(userRepository.syncAssociation(1L, FetchPlans.USER_ROLES, "roles", Role.class, List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(foundRole1, foundRole2));
+        when(roleRepository.getById(1L, FetchPlans.ROLE_PERMISSIONS)).thenReturn(foundRole1);
+        when(roleRepository.getById(2L, FetchPlans.ROLE_PERMISSIONS)).thenReturn(foundRole2);
 
         List<RoleDTO> updatedRoles = this.userRoleService.syncUserRoles(1L, rolesDTOs);
 
-        verify(foundUser, times(2)).getRoles();
-        verify(foundRoles).clear();
-
-        ArgumentCaptor<Set<Role>> rolesToUpdate = ArgumentCaptor.forClass(HashSet.class);
-        verify(foundRoles).addAll(rolesToUpdate.capture());
-
-        assertEquals(rolesToUpdate.getValue().size(), 2);
-
-        verify(foundRole1).getPermissions();
-        verify(foundRole2).getPermissions();
-
         assertEquals(updatedRoles.size(), 2);
         assertEquals(2, updatedRoles.getFirst().permissions().size());
+        verify(principalCache).invalidate(1L);
+        verify(permissionCache).invalidate(1L);
+        verify(tokenRevocation, never()).revokeAll(anyLong());
+        verify(userRepository, never()).update(anyLong(), any());
         updatedRoles.getFirst().permissions().forEach(permissionDTO -> {
             assertEquals(permissionDTO.getClass(), PermissionDTO.class);
         });
     }
 
+    @Test
+    public void shouldServeRolesFromCatalog() {
+        User foundUser = mock(User.class);
+        Role role = mock(Role.class);
+        RoleDTO cachedRole = new RoleDTO(1L, "foo", List.of(new PermissionDTO(10L, "lorem")));
+
+        when(userRepository.getById(eq(1L), anyString())).thenReturn(foundUser);
+        when(foundUser.getRoles()).thenReturn(Set.of(role));
+        when(role.getId()).thenReturn(1L);
+        when(roleCatalog.getRole(1L)).thenReturn(cachedRole);
+        when(roleCatalog.getRolesJson(List.of(1L))).thenReturn("[{\"id\":1}]");
+
+        assertEquals(List.of(cachedRole), this.userRoleService.getUserRoles(1L));
+        assertEquals("[{\"id\":1}]", this.userRoleService.getUserRolesJson(1L));
+        verify(role, never()).getPermissions();
+        verify(roleRepository, never()).getById(anyLong(), anyString());
+    }
+
+    @Test
+    public void shouldRevokeTokens_whenPermissionsAreEmbeddedInThem() {
+        when(userRepository.syncAssociation(1L, FetchPlans.USER_ROLES, "roles", Role.class, List.of()))
+                .thenReturn(List.of());
+        when(permissionClaims.isEnabled()).thenReturn(true);
+
+        this.userRoleService.syncUserRoles(1L, List.of());
+
+        verify(tokenRevocation).revokeAll(1L);
+    }
+
     @Test
     public void shouldNotSyncRoles_whenUserNotFound() {
-        when(userRepository.getById(1L)).thenReturn(null);
+        when(userRepository.syncAssociation(eq(1L), anyString(), anyString(), eq(Role.class), anyList()))
+                .thenThrow(new EntityNotFoundException("User with id 1 not found."));
 
-        ResourceNotFound exception = assertThrows(ResourceNotFound.class, () -> this.userRoleService.syncUserRoles(1L, any(List.class)));
+        ResourceNotFound exception = assertThrows(ResourceNotFound.class, () -> this.userRoleService.syncUserRoles(1L, List.of()));
 
         assertEquals("Could not get roles because user was not found.", exception.getMessage());
     }
+
+    @Test
+    public void shouldNotSyncRoles_whenSomeRolesDoNotExist() {
+        when(userRepository.syncAssociation(1L, FetchPlans.USER_ROLES, "roles", Role.class, List.of(1L, 4L)))
+                .thenThrow(new AssociationTargetsNotFoundException("Role with ids [4] not found.", List.of(4L)));
+
+        ResourceNotFound exception = assertThrows(ResourceNotFound.class, () -> this.userRoleService.syncUserRoles(
+                1L,
+                List.of(new RoleDTO(1L, "foo", List.of()), new RoleDTO(4L, "bar", List.of()))
+        ));
+
+        assertEquals("Roles with ids [4] were not found.", exception.getMessage());
+        verify(principalCache, never()).invalidate(any());
+        verify(tokenRevocation, never()).revokeAll(any());
+    }
 }
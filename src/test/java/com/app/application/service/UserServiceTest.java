@@ -1,13 +1,18 @@
 package com.app.application.service;
 
 import com.app.application.dto.user.UpdatePasswordDTO;
+import com.app.application.dto.user.UserPageDTO;
 import com.app.application.dto.user.UserRequestDTO;
 import com.app.application.dto.user.UserResponseDTO;
 import com.app.application.dto.user.UserResponseWithPasswordDTO;
 import com.app.application.exception.ForbiddenException;
 import com.app.application.exception.IncorrectPasswordException;
 import com.app.application.exception.ResourceNotFound;
+import com.app.application.util.authentication.PrincipalCache;
+import com.app.application.util.export.ExportFormat;
+import com.app.application.util.export.UserExportWriter;
 import com.app.domain.exception.UserException;
+import com.app.infrastructure.persistence.criteria.ConditionInterface;
 import com.app.infrastructure.persistence.criteria.ConditionType;
 import com.app.infrastructure.persistence.criteria.Criteria;
 import com.app.infrastructure.persistence.entity.User;
@@ -24,9 +29,14 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.*;
 import software.amazon.awssdk.services.s3.S3Client;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -45,61 +55,114 @@ public class UserServiceTest {
     @Mock
     private StorageInterface storage;
 
-    @InjectMocks
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private Clock clock;
+
+    @Mock
+    private UserExportWriter exportWriter;
+
     private UserService userService;
 
     @BeforeEach
     public void init() {
         MockitoAnnotations.openMocks(this);
         userRepository.setEntity(User.class);
+
+        this.userService = new UserService(userRepository, hasherInterface, authHolder, storage, principalCache, clock, exportWriter, 2);
+
+        when(clock.instant()).thenReturn(Instant.parse("2024-04-04T00:00:00Z"));
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
     }
 
     @Test
     public void shouldGetUser_whenExists() {
-        User user = new User(1L, "John Doe", "jdoe@domain.com");
+        UserResponseDTO user = new UserResponseDTO(1L, "John Doe", "jdoe@domain.com", null, null, null, null);
 
-        when(userRepository.getById(1L)).thenReturn(user);
+        when(userRepository.getProjectionById(1L, UserResponseDTO.class)).thenReturn(user);
 
         UserResponseDTO userResponseDTO = userService.get(1L);
 
-        assertEquals(userResponseDTO.id(), user.getId());
-        assertEquals(userResponseDTO.name(), user.getName());
-        assertEquals(userResponseDTO.email(), user.getEmail());
+        assertEquals(user, userResponseDTO);
+        verify(userRepository, never()).getById(anyLong(), anyString());
     }
 
     @Test
     public void shouldNotGetUser_whenItDoesNotExists() {
-        when(userRepository.getById(1L)).thenReturn(null);
+        when(userRepository.getProjectionById(1L, UserResponseDTO.class)).thenReturn(null);
 
         assertThrows(ResourceNotFound.class, () -> userService.get(1L), "User with id 1L not found.");
     }
 
     @Test
-    public void shouldGetAllUsers() {
-        User user1 = new User(1L, "John Doe", "jdoe@domain.com");
-        User user2 = new User(2L, "Jane Doe", "janedoe@domain.com");
-        User user3 = new User(3L, "Jack Doe", "jackdoe@domain.com");
+    public void shouldGetFirstPage_withCursorToTheNext() {
+        List<UserResponseDTO> users = List.of(
+                new UserResponseDTO(1L, "John Doe", "jdoe@domain.com", null, null, null, null),
+                new UserResponseDTO(2L, "Jane Doe", "janedoe@domain.com", null, null, null, null),
+                new UserResponseDTO(3L, "Jack Doe", "jackdoe@domain.com", null, null, null, null)
+        );
 
-        List<User> users = new ArrayList<User>();
-        users.add(user1);
-        users.add(user2);
-        users.add(user3);
+        when(userRepository.getProjectionsByFilter(any(Criteria.class), eq(UserResponseDTO.class))).thenReturn(users);
+
+        UserPageDTO page = userService.getPage(null, null);
+
+        assertEquals(users.subList(0, 2), page.users());
+        assertEquals(2L, page.nextCursor());
+
+        ArgumentCaptor<Criteria> argument = ArgumentCaptor.forClass(Criteria.class);
+        verify(userRepository).getProjectionsByFilter(argument.capture(), eq(UserResponseDTO.class));
+
+        List<ConditionInterface<?>> conditions = argument.getValue().getConditions();
+        assertEquals(2, conditions.size());
+        assertEquals(ConditionType.ORDER, conditions.get(0).getType());
+        assertEquals("id", conditions.get(0).getField());
+        assertEquals(ConditionType.LIMIT, conditions.get(1).getType());
+        assertEquals(3, conditions.get(1).getValue());
+        verify(userRepository, never()).getAllProjections(any());
+    }
+
+    @Test
+    public void shouldGetPageAfterCursor_clampingLimit() {
+        List<UserResponseDTO> users = List.of(new UserResponseDTO(3L, "Jack Doe", "jackdoe@domain.com", null, null, null, null));
+
+        when(userRepository.getProjectionsByFilter(any(Criteria.class), eq(UserResponseDTO.class))).thenReturn(users);
+
+        UserPageDTO page = userService.getPage(2L, 500);
+
+        assertEquals(users, page.users());
+        assertNull(page.nextCursor());
+
+        ArgumentCaptor<Criteria> argument = ArgumentCaptor.forClass(Criteria.class);
+        verify(userRepository).getProjectionsByFilter(argument.capture(), eq(UserResponseDTO.class));
+
+        List<ConditionInterface<?>> conditions = argument.getValue().getConditions();
+        assertEquals(ConditionType.AFTER, conditions.getFirst().getType());
+        assertEquals("id", conditions.getFirst().getField());
+        assertEquals(2L, conditions.getFirst().getValue());
+        assertEquals(3, conditions.getLast().getValue());
+    }
 
-        when(userRepository.getAll()).thenReturn(users);
+    @Test
+    public void shouldExportStreamedUsersInIdOrder() {
+        Stream<UserResponseDTO> users = Stream.of(new UserResponseDTO(1L, "John Doe", "jdoe@domain.com", null, null, null, null));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        doAnswer(invocation -> {
+            invocation.<Consumer<Stream<UserResponseDTO>>>getArgument(2).accept(users);
+            return null;
+        }).when(userRepository).streamProjections(any(Criteria.class), eq(UserResponseDTO.class), any());
 
-        List<UserResponseDTO> usersDTOs = userService.getAll();
+        userService.export(ExportFormat.CSV, output);
 
-        assertEquals(users.get(0).getId(), usersDTOs.get(0).id());
-        assertEquals(users.get(0).getName(), usersDTOs.get(0).name());
-        assertEquals(users.get(0).getEmail(), usersDTOs.get(0).email());
+        verify(exportWriter).write(users, ExportFormat.CSV, output);
 
-        assertEquals(users.get(1).getId(), usersDTOs.get(1).id());
-        assertEquals(users.get(1).getName(), usersDTOs.get(1).name());
-        assertEquals(users.get(1).getEmail(), usersDTOs.get(1).email());
+        ArgumentCaptor<Criteria> argument = ArgumentCaptor.forClass(Criteria.class);
+        verify(userRepository).streamProjections(argument.capture(), eq(UserResponseDTO.class), any());
 
-        assertEquals(users.get(2).getId(), usersDTOs.get(2).id());
-        assertEquals(users.get(2).getName(), usersDTOs.get(2).name());
-        assertEquals(users.get(2).getEmail(), usersDTOs.get(2).email());
+        assertEquals(ConditionType.ORDER, argument.getValue().getConditions().getFirst().getType());
+        assertEquals("id", argument.getValue().getConditions().getFirst().getField());
     }
 
     @Test
@@ -268,6 +331,31 @@ public class UserServiceTest {
         assertEquals(ConditionType.EQUALS, argument.getValue().getConditions().getFirst().getType());
     }
 
+    @Test
+    public void shouldRehashPassword_whenUnchangedSinceLogin() {
+        User storedUser = new User(1L, "John Doe", "jdoe@domain.com", "old_hash");
+
+        when(userRepository.getById(1L)).thenReturn(storedUser);
+        when(hasherInterface.getSalt()).thenReturn("random_salt");
+        when(hasherInterface.getHash("Password1", "random_salt")).thenReturn("new_hash");
+
+        userService.rehashPassword(1L, "old_hash", "Password1");
+
+        ArgumentCaptor<User> argument = ArgumentCaptor.forClass(User.class);
+        verify(userRepository).update(eq(1L), argument.capture());
+        assertEquals("new_hash", argument.getValue().getPassword());
+    }
+
+    @Test
+    public void shouldNotRehashPassword_whenChangedSinceLogin() {
+        when(userRepository.getById(1L)).thenReturn(new User(1L, "John Doe", "jdoe@domain.com", "newer_hash"));
+
+        userService.rehashPassword(1L, "old_hash", "Password1");
+
+        verify(hasherInterface, never()).getHash(anyString(), anyString());
+        verify(userRepository, never()).update(anyLong(), any(User.class));
+    }
+
     @Test
     public void shouldNotUpdatePassword_withInvalidUserEmail() {
         when(userRepository.getByFilter(any(Criteria.class))).thenReturn(new ArrayList<>());
@@ -339,6 +427,7 @@ public class UserServiceTest {
         assertTrue(userService.softDelete(1L));
 
         verify(userRepository).update(any(Long.class), any(User.class));
+        verify(principalCache).invalidate(1L);
     }
 
     @Test
@@ -355,6 +444,7 @@ public class UserServiceTest {
         assertTrue(userService.restoreUser(1L));
 
         verify(userRepository).update(any(Long.class), any(User.class));
+        verify(principalCache).invalidate(1L);
     }
 
     @Test
@@ -369,6 +459,7 @@ public class UserServiceTest {
         when(userRepository.delete(any(Long.class))).thenReturn(true);
 
         assertTrue(userService.deleteUser(1L));
+        verify(principalCache).invalidate(1L);
     }
 
     @Test
@@ -376,6 +467,7 @@ public class UserServiceTest {
         when(userRepository.delete(any(Long.class))).thenThrow(EntityNotFoundException.class);
 
         assertFalse(userService.deleteUser(1L));
+        verify(principalCache, never()).invalidate(any());
     }
 
     @Test
@@ -383,28 +475,26 @@ public class UserServiceTest {
         Criteria criteria = new Criteria();
         criteria.equals("email", "jdoe@domain.com");
 
-        List<User> users = new ArrayList<User>();
-        User user = new User(1L, "John Doe", "jdoe@domain.com");
-        users.add(user);
+        UserResponseWithPasswordDTO user = new UserResponseWithPasswordDTO(1L, "John Doe", "jdoe@domain.com", "hash", null, null, null);
 
-        when(userRepository.getByFilter(any(Criteria.class))).thenReturn(users);
+        when(userRepository.getProjectionsByFilter(any(Criteria.class), eq(UserResponseWithPasswordDTO.class))).thenReturn(List.of(user));
 
         UserResponseWithPasswordDTO foundUser = userService.getUserForLogin("jdoe@domain.com");
 
         ArgumentCaptor<Criteria> argument = ArgumentCaptor.forClass(Criteria.class);
 
-        verify(userRepository).getByFilter(argument.capture());
+        verify(userRepository).getProjectionsByFilter(argument.capture(), eq(UserResponseWithPasswordDTO.class));
 
         assertEquals("email", argument.getValue().getConditions().getFirst().getField());
         assertEquals("jdoe@domain.com", argument.getValue().getConditions().getFirst().getValue());
         assertEquals(ConditionType.EQUALS, argument.getValue().getConditions().getFirst().getType());
 
-        assertEquals(foundUser.email(), user.getEmail());
+        assertEquals(user, foundUser);
     }
 
     @Test
     public void shouldGetUserByEmail_whenNotExists() {
-        when(userRepository.getByFilter(any(Criteria.class))).thenReturn(new ArrayList<>());
+        when(userRepository.getProjectionsByFilter(any(Criteria.class), eq(UserResponseWithPasswordDTO.class))).thenReturn(List.of());
 
         assertThrows(ResourceNotFound.class, () -> userService.getUserForLogin("jdoe@domain.com"));
     }
@@ -1,13 +1,14 @@
 package com.app.application.util.authentication;
 
-import com.app.application.dto.auth.JwtClaimDTO;
+import com.app.application.dto.auth.PrincipalDTO;
+import com.app.application.dto.auth.TokenClaimsDTO;
 import com.app.application.dto.user.UserResponseDTO;
 import com.app.application.exception.UnauthenticatedException;
 import com.app.application.service.UserService;
 import com.app.domain.entity.User;
-import com.app.infrastructure.cache.CacheInterface;
 import com.app.infrastructure.security.auth.AuthHolderInterface;
 import com.app.infrastructure.security.auth.JWTAuthInterface;
+import com.app.infrastructure.security.auth.exception.AuthException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -18,21 +19,22 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.time.Clock;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class AuthInterceptorHandlerTest {
+    private static final Long FUTURE_EXPIRATION = 32503680000L;
+    private static final Long PAST_EXPIRATION = 946684800L;
+
     @Mock
     private JWTAuthInterface auth;
 
     @Mock
-    private CacheInterface cache;
+    private TokenRevocationInterface tokenRevocation;
 
     @Mock
     private UserService userService;
@@ -40,38 +42,66 @@ public class AuthInterceptorHandlerTest {
     @Mock
     private AuthHolderInterface authHolder;
 
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private Clock clock;
+
     @InjectMocks
     private AuthInterceptorHandler authInterceptorHandler;
 
     @BeforeEach
     public void init() {
         MockitoAnnotations.openMocks(this);
+
+        when(this.clock.millis()).thenReturn(System.currentTimeMillis());
+
+        when(this.principalCache.get(any(Long.class), any())).thenAnswer(invocation -> {
+            Function<Long, PrincipalDTO> loader = invocation.getArgument(1);
+            return loader.apply(invocation.getArgument(0));
+        });
     }
 
     @Test
     public void shouldHandleAuthenticatedUser() {
         String authHeader = "Bearer eycv7tn0eq8qeymrghdsjgg.8b74nv9ae8aybnegy34780tq2t1";
 
-        when(this.auth.validateToken(authHeader.replace("Bearer ", ""))).thenReturn(true);
-        when(this.cache.getList("auth_tokens_blacklist")).thenReturn(new HashSet<>());
+        when(this.tokenRevocation.isRevoked(eq(authHeader.replace("Bearer ", "")), any())).thenReturn(false);
 
-        List<JwtClaimDTO> claims = new ArrayList<JwtClaimDTO>();
-        claims.add(new JwtClaimDTO("expiresAt", "3000-01-01 00:00:00.000000"));
-        claims.add(new JwtClaimDTO("userId", "1"));
+        TokenClaimsDTO claims = new TokenClaimsDTO(1L, null, null, FUTURE_EXPIRATION, null, null);
 
-        when(auth.getClaims()).thenReturn(claims);
+        when(this.auth.verifyToken(authHeader.replace("Bearer ", ""))).thenReturn(claims);
 
         when(userService.get(1L)).thenReturn(new UserResponseDTO(1L, "John Doe", "jdoe@domain.com", "", "", "", ""));
 
         authInterceptorHandler.handle(authHeader);
 
         ArgumentCaptor<User> argument = ArgumentCaptor.forClass(User.class);
-        verify(authHolder).setAuth(argument.capture(), any(String.class));
+        verify(authHolder).setAuth(argument.capture(), any(String.class), any(TokenClaimsDTO.class));
 
         assertEquals(argument.getValue().getName(), "John Doe");
         assertEquals(argument.getValue().getEmail(), "jdoe@domain.com");
     }
 
+    @Test
+    public void shouldThrowException_withDeletedUser() {
+        String authHeader = "Bearer eycv7tn0eq8qeymrghdsjgg.8b74nv9ae8aybnegy34780tq2t1";
+
+        TokenClaimsDTO claims = new TokenClaimsDTO(1L, null, null, FUTURE_EXPIRATION, null, null);
+
+        when(this.auth.verifyToken(authHeader.replace("Bearer ", ""))).thenReturn(claims);
+        when(this.principalCache.get(eq(1L), any())).thenReturn(new PrincipalDTO(1L, "John Doe", "jdoe@domain.com", true));
+
+        UnauthenticatedException exception = assertThrows(
+                UnauthenticatedException.class,
+                () -> this.authInterceptorHandler.handle(authHeader)
+        );
+
+        assertEquals("Token belongs to a deleted user.", exception.getMessage());
+        verify(authHolder, never()).setAuth(any(), any(), any());
+    }
+
     @ParameterizedTest
     @MethodSource("invalidAuthHeaders")
     public void shouldThrowException_withInvalidAuthHeader(String authHeader) {
@@ -95,7 +125,7 @@ public class AuthInterceptorHandlerTest {
     public void shouldThgrowException_withInvalidatedToken() {
         String authHeader = "Bearer eycv7tn0eq8qeymrghdsjgg.8b74nv9ae8aybnegy34780tq2t1";
 
-        when(this.auth.validateToken(authHeader.replace("Bearer ", ""))).thenReturn(false);
+        when(this.auth.verifyToken(authHeader.replace("Bearer ", ""))).thenThrow(new AuthException("Token validation failed"));
 
         UnauthenticatedException exception = assertThrows(
                 UnauthenticatedException.class,
@@ -109,12 +139,9 @@ public class AuthInterceptorHandlerTest {
     public void shouldThrowException_withBlacklistedToken() {
         String authHeader = "Bearer eycv7tn0eq8qeymrghdsjgg.8b74nv9ae8aybnegy34780tq2t1";
         String token = authHeader.replace("Bearer ", "");
-        when(this.auth.validateToken(token)).thenReturn(true);
-
-        Set<String> blackListedTokens = new HashSet<>();
-        blackListedTokens.add(token);
+        when(this.auth.verifyToken(token)).thenReturn(new TokenClaimsDTO(1L, null, null, FUTURE_EXPIRATION, null, null));
 
-        when(this.cache.getList("auth_tokens_blacklist")).thenReturn(blackListedTokens);
+        when(this.tokenRevocation.isRevoked(eq(token), any())).thenReturn(true);
 
         UnauthenticatedException exception = assertThrows(
                 UnauthenticatedException.class,
@@ -122,14 +149,13 @@ public class AuthInterceptorHandlerTest {
         );
 
         assertEquals("Provided token is blacklisted.", exception.getMessage());
+        verify(auth).invalidate(token);
     }
 
     @Test
     public void shouldThrowException_withExpirationClaimAbsent() {
         String authHeader = "Bearer eycv7tn0eq8qeymrghdsjgg.8b74nv9ae8aybnegy34780tq2t1";
-        when(this.auth.validateToken(authHeader.replace("Bearer ", ""))).thenReturn(true);
-
-        when(auth.getClaims()).thenReturn(new ArrayList<JwtClaimDTO>());
+        when(this.auth.verifyToken(authHeader.replace("Bearer ", ""))).thenReturn(new TokenClaimsDTO(1L, null, null, null, null, null));
 
         UnauthenticatedException exception = assertThrows(
                 UnauthenticatedException.class,
@@ -139,33 +165,12 @@ public class AuthInterceptorHandlerTest {
         assertEquals("Token's expiration not set.", exception.getMessage());
     }
 
-    @Test
-    public void shouldThrowException_withInvalidExpirationClaim() {
-        String authHeader = "Bearer eycv7tn0eq8qeymrghdsjgg.8b74nv9ae8aybnegy34780tq2t1";
-        when(this.auth.validateToken(authHeader.replace("Bearer ", ""))).thenReturn(true);
-
-        List<JwtClaimDTO> claims = new ArrayList<JwtClaimDTO>();
-        claims.add(new JwtClaimDTO("expiresAt", "foobarbaz"));
-
-        when(auth.getClaims()).thenReturn(claims);
-
-        UnauthenticatedException exception = assertThrows(
-                UnauthenticatedException.class,
-                () -> this.authInterceptorHandler.handle(authHeader)
-        );
-
-        assertEquals("Date parsing failed.", exception.getMessage());
-    }
-
     @Test
     public void shouldThrowException_withExpiredClaim() {
         String authHeader = "Bearer eycv7tn0eq8qeymrghdsjgg.8b74nv9ae8aybnegy34780tq2t1";
-        when(this.auth.validateToken(authHeader.replace("Bearer ", ""))).thenReturn(true);
+        TokenClaimsDTO claims = new TokenClaimsDTO(1L, null, null, PAST_EXPIRATION, null, null);
 
-        List<JwtClaimDTO> claims = new ArrayList<JwtClaimDTO>();
-        claims.add(new JwtClaimDTO("expiresAt", "1500-01-01 00:00:00.000000"));
-
-        when(auth.getClaims()).thenReturn(claims);
+        when(this.auth.verifyToken(authHeader.replace("Bearer ", ""))).thenReturn(claims);
 
         UnauthenticatedException exception = assertThrows(
                 UnauthenticatedException.class,
@@ -178,12 +183,9 @@ public class AuthInterceptorHandlerTest {
     @Test
     public void shouldThrowException_withUserClaimAbsent() {
         String authHeader = "Bearer eycv7tn0eq8qeymrghdsjgg.8b74nv9ae8aybnegy34780tq2t1";
-        when(this.auth.validateToken(authHeader.replace("Bearer ", ""))).thenReturn(true);
-
-        List<JwtClaimDTO> claims = new ArrayList<JwtClaimDTO>();
-        claims.add(new JwtClaimDTO("expiresAt", "3000-01-01 00:00:00.000000"));
+        TokenClaimsDTO claims = new TokenClaimsDTO(null, null, null, FUTURE_EXPIRATION, null, null);
 
-        when(auth.getClaims()).thenReturn(claims);
+        when(this.auth.verifyToken(authHeader.replace("Bearer ", ""))).thenReturn(claims);
 
         UnauthenticatedException exception = assertThrows(
                 UnauthenticatedException.class,
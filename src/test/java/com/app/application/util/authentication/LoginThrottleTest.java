@@ -0,0 +1,120 @@
+package com.app.application.util.authentication;
+
+import com.app.application.exception.TooManyLoginAttemptsException;
+import com.app.infrastructure.cache.CacheInterface;
+import com.app.infrastructure.cache.JedisCache;
+import com.app.infrastructure.cache.exception.CacheException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class LoginThrottleTest {
+    // 15 seconds into a one minute window, so three quarters of the previous window still count
+    private static final Instant NOW = Instant.parse("2024-04-04T00:00:15Z");
+    private static final long WINDOW = NOW.toEpochMilli() / 60000;
+
+    @Mock
+    private CacheInterface cache;
+
+    @Mock
+    private Clock clock;
+
+    private LoginThrottle loginThrottle;
+
+    @BeforeEach
+    public void init() {
+        MockitoAnnotations.openMocks(this);
+        when(clock.millis()).thenReturn(NOW.toEpochMilli());
+
+        this.loginThrottle = new LoginThrottle(this.cache, this.clock, Duration.ofMinutes(1), 10, 100, 1000);
+    }
+
+    @Test
+    public void shouldAllowAttempts_belowThreshold() {
+        when(cache.runScript(anyString(), anyList(), anyList())).thenReturn(List.of(5L, 4L, 50L, 10L));
+
+        assertDoesNotThrow(() -> loginThrottle.check("JDoe@domain.com", "10.0.0.1"));
+
+        verify(cache).runScript(anyString(), eq(List.of(
+                "login_failures:account:jdoe@domain.com:" + WINDOW,
+                "login_failures:account:jdoe@domain.com:" + (WINDOW - 1),
+                "login_failures:address:10.0.0.1:" + WINDOW,
+                "login_failures:address:10.0.0.1:" + (WINDOW - 1)
+        )), eq(List.of()));
+    }
+
+    @Test
+    public void shouldRejectAttempts_whenWeightedCountReachesThreshold() {
+        when(cache.runScript(anyString(), anyList(), anyList())).thenReturn(List.of(4L, 8L, 0L, 0L));
+
+        TooManyLoginAttemptsException exception = assertThrows(
+                TooManyLoginAttemptsException.class,
+                () -> loginThrottle.check("jdoe@domain.com", "10.0.0.1")
+        );
+
+        assertEquals(45, exception.getRetryAfterSeconds());
+    }
+
+    @Test
+    public void shouldRecordFailuresForAccountAndAddress() {
+        loginThrottle.recordFailure("jdoe@domain.com", "10.0.0.1");
+
+        verify(cache).runScript(anyString(), eq(List.of(
+                "login_failures:account:jdoe@domain.com:" + WINDOW,
+                "login_failures:address:10.0.0.1:" + WINDOW
+        )), eq(List.of("120")));
+    }
+
+    @Test
+    public void shouldRejectFromLocalCounts_withoutAskingCache() {
+        for (int i = 0; i < 10; i++) {
+            loginThrottle.recordFailure("jdoe@domain.com", "10.0.0." + i);
+        }
+
+        clearInvocations(cache);
+
+        assertThrows(TooManyLoginAttemptsException.class, () -> loginThrottle.check("jdoe@domain.com", "10.0.0.99"));
+        verifyNoInteractions(cache);
+    }
+
+    @Test
+    public void shouldFallBackToLocalCounts_whenCacheFails() {
+        when(cache.runScript(anyString(), anyList(), anyList())).thenThrow(new CacheException("Read timed out"));
+
+        loginThrottle.recordFailure("jdoe@domain.com", "10.0.0.1");
+
+        assertDoesNotThrow(() -> loginThrottle.check("jdoe@domain.com", "10.0.0.1"));
+    }
+
+    @Test
+    public void shouldFallBackToLocalCounts_whenCacheIsSlow() throws IOException {
+        // the socket accepts connections but never answers, like a redis stuck on a slow command
+        try (ServerSocket slowRedis = new ServerSocket(0)) {
+            JedisPool jedisPool = new JedisPool(new JedisPoolConfig(), "localhost", slowRedis.getLocalPort(), 100);
+            LoginThrottle slowThrottle = new LoginThrottle(
+                    new JedisCache(jedisPool, () -> null), this.clock, Duration.ofMinutes(1), 1, 100, 1000
+            );
+
+            assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+                assertDoesNotThrow(() -> slowThrottle.check("jdoe@domain.com", "10.0.0.1"));
+                slowThrottle.recordFailure("jdoe@domain.com", "10.0.0.1");
+                assertThrows(TooManyLoginAttemptsException.class, () -> slowThrottle.check("jdoe@domain.com", "10.0.0.1"));
+            });
+
+            jedisPool.close();
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.app.application.util.authentication;
+
+import com.app.application.dto.auth.IssuedTokensDTO;
+import com.app.application.dto.auth.TokenClaimsDTO;
+import com.app.infrastructure.cache.BloomFilter;
+import com.app.infrastructure.cache.CacheInterface;
+import com.app.infrastructure.cache.exception.CacheException;
+import com.app.infrastructure.security.auth.JWTAuthInterface;
+import com.app.infrastructure.security.auth.TokenFingerprint;
+import com.app.infrastructure.security.auth.exception.AuthException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TokenBlacklistTest {
+    private static final Instant NOW = Instant.parse("2024-04-04T00:00:00Z");
+
+    @Mock
+    private CacheInterface cache;
+
+    @Mock
+    private JWTAuthInterface jwtHandler;
+
+    @Mock
+    private Clock clock;
+
+    private TokenBlacklist tokenBlacklist;
+
+    @BeforeEach
+    public void init() {
+        MockitoAnnotations.openMocks(this);
+        when(clock.millis()).thenReturn(NOW.toEpochMilli());
+
+        this.tokenBlacklist = new TokenBlacklist(
+                this.cache,
+                this.jwtHandler,
+                () -> new BloomFilter(1000, 0.01),
+                this.clock,
+                Duration.ofHours(4)
+        );
+    }
+
+    @Test
+    public void shouldCheckCacheBeforeFirstSync() {
+        when(cache.get("revoked_token:" + TokenFingerprint.of("jwt_token"))).thenReturn("1");
+
+        assertTrue(tokenBlacklist.isRevoked("jwt_token"));
+    }
+
+    @Test
+    public void shouldCheckLegacySet_whileMigrationIsPending() {
+        when(cache.isMember("auth_tokens_blacklist", "jwt_token")).thenReturn(true);
+
+        assertTrue(tokenBlacklist.isRevoked("jwt_token"));
+    }
+
+    @Test
+    public void shouldNotCheckCache_whenFilterRulesTokenOut() {
+        when(cache.getList("auth_tokens_blacklist")).thenReturn(Set.of("revoked_token"));
+        when(cache.getSortedSetRange(eq("auth_tokens_revocation_log"), anyDouble(), anyDouble())).thenReturn(List.of());
+
+        tokenBlacklist.sync();
+
+        assertTrue(tokenBlacklist.isSynced());
+        assertFalse(tokenBlacklist.isRevoked("jwt_token"));
+        verify(cache, never()).get(anyString());
+        verify(cache, never()).isMember(anyString(), anyString());
+    }
+
+    @Test
+    public void shouldConfirmInCache_whenFilterMightContainToken() {
+        when(cache.getList("auth_tokens_blacklist")).thenReturn(Set.of());
+        when(cache.getSortedSetRange(eq("auth_tokens_revocation_log"), anyDouble(), anyDouble()))
+                .thenReturn(List.of(TokenFingerprint.of("revoked_token")));
+        when(cache.get("revoked_token:" + TokenFingerprint.of("revoked_token"))).thenReturn("1");
+
+        tokenBlacklist.sync();
+
+        assertTrue(tokenBlacklist.isRevoked("revoked_token"));
+    }
+
+    @Test
+    public void shouldPruneRevocationLog_whenRebuildingFilter() {
+        when(cache.getList("auth_tokens_blacklist")).thenReturn(Set.of());
+        when(cache.getSortedSetRange(eq("auth_tokens_revocation_log"), anyDouble(), anyDouble())).thenReturn(List.of());
+
+        tokenBlacklist.sync();
+
+        double cutoff = NOW.minus(Duration.ofHours(4)).toEpochMilli() - 5000;
+        verify(cache).removeSortedSetRange("auth_tokens_revocation_log", Double.NEGATIVE_INFINITY, cutoff);
+    }
+
+    @Test
+    public void shouldRevokeTokenForItsRemainingLifetime() {
+        when(jwtHandler.verifyToken("jwt_token"))
+                .thenReturn(new TokenClaimsDTO(1L, null, NOW.getEpochSecond(), NOW.plus(Duration.ofHours(1)).getEpochSecond(), null, null));
+
+        tokenBlacklist.revoke("jwt_token");
+
+        verify(cache).set("revoked_token:" + TokenFingerprint.of("jwt_token"), "1", 3600L);
+        verify(cache).addToSortedSet("auth_tokens_revocation_log", NOW.toEpochMilli(), TokenFingerprint.of("jwt_token"));
+    }
+
+    @Test
+    public void shouldIssueTokensAndRevokePreviousInOneScript() {
+        IssuedTokensDTO tokens = new IssuedTokensDTO(
+                "access_token",
+                NOW.plus(Duration.ofHours(1)).getEpochSecond(),
+                "refresh_token",
+                NOW.plus(Duration.ofHours(4)).getEpochSecond()
+        );
+        String previous = TokenFingerprint.of("previous_token") + ":" + NOW.plus(Duration.ofMinutes(30)).getEpochSecond();
+
+        when(cache.runScript(anyString(), anyList(), anyList())).thenReturn(List.of(1L, previous));
+
+        assertEquals(tokens, tokenBlacklist.issue(1L, revocationClaims -> tokens));
+
+        verify(cache).runScript(
+                anyString(),
+                eq(List.of("auth_session:1", "auth_tokens_revocation_log", "1_current_token", "1_refresh_token")),
+                eq(List.of(
+                        TokenFingerprint.of("access_token") + ":" + tokens.accessExpiresAt(),
+                        TokenFingerprint.of("refresh_token"),
+                        "14400",
+                        String.valueOf(NOW.getEpochSecond()),
+                        String.valueOf(NOW.toEpochMilli()),
+                        "revoked_token:",
+                        "",
+                        ""
+                ))
+        );
+        verify(cache, never()).set(anyString(), anyString(), anyLong());
+        verify(jwtHandler, never()).verifyToken(anyString());
+    }
+
+    @Test
+    public void shouldRevokePreviousTokenStoredBeforeScriptedIssuance() {
+        IssuedTokensDTO tokens = new IssuedTokensDTO("access_token", NOW.getEpochSecond() + 3600, "refresh_token", NOW.getEpochSecond() + 14400);
+
+        when(cache.runScript(anyString(), anyList(), anyList())).thenReturn(List.of(1L, "legacy.jwt.token"));
+        when(jwtHandler.verifyToken("legacy.jwt.token"))
+                .thenReturn(new TokenClaimsDTO(1L, null, null, NOW.plus(Duration.ofMinutes(5)).getEpochSecond(), null, null));
+
+        tokenBlacklist.issue(1L, revocationClaims -> tokens);
+
+        verify(cache).set("revoked_token:" + TokenFingerprint.of("legacy.jwt.token"), "1", 300L);
+    }
+
+    @Test
+    public void shouldRotateWithPresentedRefreshToken() {
+        IssuedTokensDTO tokens = new IssuedTokensDTO("access_token", NOW.getEpochSecond() + 3600, "refresh_token", NOW.getEpochSecond() + 14400);
+
+        when(cache.runScript(anyString(), anyList(), anyList())).thenReturn(Arrays.asList(1L, null));
+
+        assertEquals(tokens, tokenBlacklist.rotate(1L, "presented_refresh_token", revocationClaims -> tokens));
+
+        ArgumentCaptor<List<String>> args = ArgumentCaptor.forClass(List.class);
+        verify(cache).runScript(anyString(), anyList(), args.capture());
+        assertEquals(TokenFingerprint.of("presented_refresh_token"), args.getValue().get(6));
+        assertEquals("presented_refresh_token", args.getValue().get(7));
+    }
+
+    @Test
+    public void shouldNotRotate_whenRefreshTokenIsMissingOrDifferent() {
+        IssuedTokensDTO tokens = new IssuedTokensDTO("access_token", NOW.getEpochSecond() + 3600, "refresh_token", NOW.getEpochSecond() + 14400);
+
+        when(cache.runScript(anyString(), anyList(), anyList())).thenReturn(List.of(0L), List.of(-1L));
+
+        AuthException missing = assertThrows(AuthException.class, () -> tokenBlacklist.rotate(1L, "presented_refresh_token", revocationClaims -> tokens));
+        AuthException different = assertThrows(AuthException.class, () -> tokenBlacklist.rotate(1L, "presented_refresh_token", revocationClaims -> tokens));
+
+        assertEquals("User does not have a refresh token stored.", missing.getMessage());
+        assertEquals("Invalid refresh token.", different.getMessage());
+    }
+
+    @Test
+    public void shouldKeepLegacySession_whenRefreshTokenDoesNotMatch() {
+        IssuedTokensDTO tokens = new IssuedTokensDTO("access_token", NOW.getEpochSecond() + 3600, "refresh_token", NOW.getEpochSecond() + 14400);
+
+        when(cache.runScript(anyString(), anyList(), anyList())).thenReturn(List.of(-1L));
+
+        AuthException exception = assertThrows(
+                AuthException.class,
+                () -> tokenBlacklist.rotate(1L, "stale_refresh_token", revocationClaims -> tokens)
+        );
+
+        assertEquals("Invalid refresh token.", exception.getMessage());
+
+        // the legacy keys may only be deleted after the presented token was compared with the stored one
+        ArgumentCaptor<String> script = ArgumentCaptor.forClass(String.class);
+        verify(cache).runScript(script.capture(), anyList(), anyList());
+        assertTrue(script.getValue().indexOf("redis.call('DEL', KEYS[3], KEYS[4])") > script.getValue().indexOf("return {-1}"));
+
+        verify(cache, never()).set(anyString(), anyString(), anyLong());
+        verify(jwtHandler, never()).verifyToken(anyString());
+    }
+
+    @Test
+    public void shouldRevokeAccessTokenInSessionAndDropIt() {
+        String previous = TokenFingerprint.of("session_token") + ":" + NOW.plus(Duration.ofMinutes(30)).getEpochSecond();
+
+        when(cache.getList("auth_tokens_blacklist")).thenReturn(Set.of());
+        when(cache.getSortedSetRange(eq("auth_tokens_revocation_log"), anyDouble(), anyDouble())).thenReturn(List.of());
+        when(cache.runScript(anyString(), anyList(), anyList())).thenReturn(List.of(1L, previous));
+        when(cache.get("revoked_token:" + TokenFingerprint.of("session_token"))).thenReturn("1");
+
+        tokenBlacklist.sync();
+        tokenBlacklist.revokeAll(1L);
+
+        verify(cache).runScript(
+                anyString(),
+                eq(List.of("auth_session:1", "auth_tokens_revocation_log", "1_current_token", "1_refresh_token")),
+                eq(List.of(String.valueOf(NOW.getEpochSecond()), String.valueOf(NOW.toEpochMilli()), "revoked_token:"))
+        );
+        assertTrue(tokenBlacklist.isRevoked("session_token"));
+        verify(jwtHandler, never()).verifyToken(anyString());
+    }
+
+    @Test
+    public void shouldNotStoreRevocation_whenTokenNoLongerVerifies() {
+        when(jwtHandler.verifyToken("expired_token")).thenThrow(new AuthException("Provided token is expired."));
+
+        tokenBlacklist.revoke("expired_token");
+
+        verify(cache, never()).set(anyString(), anyString(), anyLong());
+        verify(cache, never()).addToSortedSet(anyString(), anyDouble(), anyString());
+    }
+
+    @Test
+    public void shouldMigrateLegacyTokensInBatches() {
+        when(jwtHandler.verifyToken("legacy_token"))
+                .thenReturn(new TokenClaimsDTO(1L, null, null, NOW.plus(Duration.ofMinutes(10)).getEpochSecond(), null, null));
+        when(cache.getListSample("auth_tokens_blacklist", 500)).thenReturn(List.of("legacy_token"));
+
+        tokenBlacklist.migrateLegacyBlacklist();
+
+        verify(cache).set("revoked_token:" + TokenFingerprint.of("legacy_token"), "1", 600L);
+        verify(cache).removeFromList("auth_tokens_blacklist", List.of("legacy_token"));
+        assertFalse(tokenBlacklist.isLegacyDrained());
+
+        when(cache.getListSample("auth_tokens_blacklist", 500)).thenReturn(List.of());
+
+        tokenBlacklist.migrateLegacyBlacklist();
+
+        assertTrue(tokenBlacklist.isLegacyDrained());
+        assertFalse(tokenBlacklist.isRevoked("unknown_token"));
+        verify(cache, never()).isMember(anyString(), anyString());
+    }
+
+    @Test
+    public void shouldStayUnsynced_whenCacheFails() {
+        when(cache.getList("auth_tokens_blacklist")).thenThrow(new CacheException("Connection refused"));
+
+        tokenBlacklist.sync();
+
+        assertFalse(tokenBlacklist.isSynced());
+    }
+}
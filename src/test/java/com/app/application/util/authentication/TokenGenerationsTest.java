@@ -0,0 +1,177 @@
+package com.app.application.util.authentication;
+
+import com.app.application.dto.auth.IssuedTokensDTO;
+import com.app.application.dto.auth.JwtClaimDTO;
+import com.app.application.dto.auth.TokenClaimsDTO;
+import com.app.infrastructure.cache.CacheInterface;
+import com.app.infrastructure.security.auth.TokenFingerprint;
+import com.app.infrastructure.security.auth.exception.AuthException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TokenGenerationsTest {
+    private static final Instant NOW = Instant.parse("2024-04-04T00:00:00Z");
+
+    @Mock
+    private CacheInterface cache;
+
+    @Mock
+    private Clock clock;
+
+    private TokenGenerations tokenGenerations;
+
+    @BeforeEach
+    public void init() {
+        MockitoAnnotations.openMocks(this);
+        when(clock.millis()).thenReturn(NOW.toEpochMilli());
+        this.tokenGenerations = new TokenGenerations(this.cache, this.clock, 10);
+    }
+
+    @Test
+    public void shouldLoadGenerationOnlyOnce() {
+        when(cache.get("auth_token_generation:1")).thenReturn("2");
+
+        assertEquals(2, tokenGenerations.get(1L));
+        assertEquals(2, tokenGenerations.get(1L));
+
+        verify(cache, times(1)).get("auth_token_generation:1");
+    }
+
+    @Test
+    public void shouldIssueTokensWithNextGeneration() {
+        when(cache.get("auth_token_generation:1")).thenReturn(null);
+        when(cache.runScript(anyString(), anyList(), anyList())).thenReturn(List.of(1L, 1L));
+
+        List<List<JwtClaimDTO>> signedClaims = new ArrayList<>();
+        IssuedTokensDTO issued = tokenGenerations.issue(1L, revocationClaims -> {
+            signedClaims.add(revocationClaims);
+            return new IssuedTokensDTO("access_token", 0, "refresh_token", NOW.getEpochSecond() + 14400);
+        });
+
+        assertEquals("access_token", issued.accessToken());
+        assertEquals(List.of(List.of(new JwtClaimDTO("generation", "1"))), signedClaims);
+        verify(cache).runScript(
+                anyString(),
+                eq(List.of("auth_token_generation:1", "auth_session:1", "1_refresh_token")),
+                eq(List.of(
+                        "0",
+                        "1",
+                        TokenFingerprint.of("refresh_token"),
+                        "14400",
+                        "auth_token_generation_changes",
+                        "1:1",
+                        "",
+                        ""
+                ))
+        );
+        assertEquals(1, tokenGenerations.get(1L));
+    }
+
+    @Test
+    public void shouldSignAgain_whenGenerationChangedConcurrently() {
+        when(cache.get("auth_token_generation:1")).thenReturn("0");
+        when(cache.runScript(anyString(), anyList(), anyList())).thenReturn(List.of(1L, 3L), List.of(1L, 4L));
+
+        List<List<JwtClaimDTO>> signedClaims = new ArrayList<>();
+        tokenGenerations.issue(1L, revocationClaims -> {
+            signedClaims.add(revocationClaims);
+            return new IssuedTokensDTO("access_token", 0, "refresh_token", NOW.getEpochSecond() + 14400);
+        });
+
+        assertEquals(List.of(
+                List.of(new JwtClaimDTO("generation", "1")),
+                List.of(new JwtClaimDTO("generation", "4"))
+        ), signedClaims);
+        assertEquals(4, tokenGenerations.get(1L));
+    }
+
+    @Test
+    public void shouldRotateOnlyWithStoredRefreshToken() {
+        when(cache.get("auth_token_generation:1")).thenReturn("1");
+        when(cache.runScript(anyString(), anyList(), anyList())).thenReturn(List.of(-1L));
+
+        AuthException exception = assertThrows(AuthException.class, () -> tokenGenerations.rotate(
+                1L,
+                "presented_refresh_token",
+                revocationClaims -> new IssuedTokensDTO("access_token", 0, "refresh_token", NOW.getEpochSecond() + 14400)
+        ));
+
+        assertEquals("Invalid refresh token.", exception.getMessage());
+        verify(cache).runScript(anyString(), anyList(), eq(List.of(
+                "1",
+                "2",
+                TokenFingerprint.of("refresh_token"),
+                "14400",
+                "auth_token_generation_changes",
+                "1:2",
+                TokenFingerprint.of("presented_refresh_token"),
+                "presented_refresh_token"
+        )));
+        verify(cache, never()).publish(anyString(), anyString());
+        assertEquals(1, tokenGenerations.get(1L));
+    }
+
+    @Test
+    public void shouldRevokeOlderGenerations() {
+        when(cache.get("auth_token_generation:1")).thenReturn("2");
+
+        assertTrue(tokenGenerations.isRevoked("jwt_token", new TokenClaimsDTO(1L, null, null, null, 1L, null)));
+        assertFalse(tokenGenerations.isRevoked("jwt_token", new TokenClaimsDTO(1L, null, null, null, 2L, null)));
+    }
+
+    @Test
+    public void shouldRevokeTokens_withoutGeneration() {
+        assertTrue(tokenGenerations.isRevoked("jwt_token", new TokenClaimsDTO(1L, null, null, null, null, null)));
+        verify(cache, never()).get(anyString());
+    }
+
+    @Test
+    public void shouldBumpAndPublishGeneration() {
+        when(cache.increment("auth_token_generation:1")).thenReturn(3L);
+
+        tokenGenerations.revoke(1L, "jwt_token");
+
+        verify(cache).publish("auth_token_generation_changes", "1:3");
+        assertEquals(3, tokenGenerations.get(1L));
+        verify(cache, never()).get(anyString());
+    }
+
+    @Test
+    public void shouldRevokeEveryTokenOfUser_byBumpingGeneration() {
+        when(cache.increment("auth_token_generation:1")).thenReturn(2L);
+
+        tokenGenerations.revokeAll(1L);
+
+        verify(cache).publish("auth_token_generation_changes", "1:2");
+        assertTrue(tokenGenerations.isRevoked("jwt_token", new TokenClaimsDTO(1L, null, null, null, 1L, null)));
+    }
+
+    @Test
+    public void shouldApplyGenerationsPublishedByOtherNodes() {
+        when(cache.get("auth_token_generation:1")).thenReturn("1");
+
+        tokenGenerations.listen();
+
+        ArgumentCaptor<Consumer<String>> onMessage = ArgumentCaptor.forClass(Consumer.class);
+        verify(cache).subscribe(eq("auth_token_generation_changes"), any(Runnable.class), onMessage.capture());
+
+        assertEquals(1, tokenGenerations.get(1L));
+
+        onMessage.getValue().accept("1:4");
+        onMessage.getValue().accept("1:2");
+
+        assertEquals(4, tokenGenerations.get(1L));
+    }
+}
@@ -1,16 +1,19 @@
 package com.app.application.util.authorization;
 
+import com.app.application.dto.auth.TokenClaimsDTO;
 import com.app.application.dto.authorization.PermissionDTO;
 import com.app.application.dto.authorization.RoleDTO;
 import com.app.application.service.UserRoleService;
+import com.app.application.util.authorization.exception.UnknownPermissionException;
 import com.app.domain.entity.User;
+import com.app.infrastructure.cache.CacheInterface;
 import com.app.infrastructure.security.auth.AuthHolderInterface;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.time.Clock;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,12 +27,38 @@ public class AuthorizationInterceptorHadlerTest {
     @Mock
     private UserRoleService userRoleService;
 
-    @InjectMocks
+    @Mock
+    private CacheInterface cache;
+
+    private PermissionCache permissionCache;
+
+    private PermissionRegistry permissionRegistry;
+
     private AuthorizationInterceptorHandler handler;
 
     @BeforeEach
     public void init() {
         MockitoAnnotations.openMocks(this);
+
+        this.permissionCache = new PermissionCache(this.cache, Clock.systemUTC(), 60_000, 10);
+
+        this.permissionRegistry = new PermissionRegistry(List.of(
+                new PermissionDTO(1L, "foo"),
+                new PermissionDTO(2L, "foobarbaz"),
+                new PermissionDTO(3L, "lorem")
+        ));
+
+        this.handler = this.createHandler(false);
+    }
+
+    private AuthorizationInterceptorHandler createHandler(boolean claimsEnabled) {
+        return new AuthorizationInterceptorHandler(
+                this.authHolder,
+                this.userRoleService,
+                this.permissionRegistry,
+                this.permissionCache,
+                new PermissionClaims(claimsEnabled, this.permissionRegistry)
+        );
     }
 
     @Test
@@ -44,15 +73,16 @@ public class AuthorizationInterceptorHadlerTest {
         when(userRoleService.getUserRoles(1L)).thenReturn(roles);
 
         assertTrue(handler.handle("foo"));
+        assertTrue(handler.handle("not registered"));
     }
 
     @Test
     public void nonAdminUserWithPermissionShouldReturnTrue() {
-        User user = mock(User.class);
+        User user = new User(2L, "John Doe", "jdoe@domain.com");
         when(authHolder.getUser()).thenReturn(user);
 
         List<PermissionDTO> permissions = new ArrayList<>();
-        permissions.add(new PermissionDTO(1L, "foobarbaz"));
+        permissions.add(new PermissionDTO(2L, "foobarbaz"));
 
         List<RoleDTO> roles = new ArrayList<>();
         roles.add(new RoleDTO(1L, RolesEnum.COMMON.toString(), permissions));
@@ -64,7 +94,7 @@ public class AuthorizationInterceptorHadlerTest {
 
     @Test
     public void nonAdminUserWithoutPermissionShouldReturnFalse() {
-        User user = mock(User.class);
+        User user = new User(2L, "John Doe", "jdoe@domain.com");
         when(authHolder.getUser()).thenReturn(user);
 
         List<PermissionDTO> permissions = new ArrayList<>();
@@ -76,5 +106,86 @@ public class AuthorizationInterceptorHadlerTest {
         when(userRoleService.getUserRoles(any())).thenReturn(roles);
 
         assertFalse(handler.handle("lorem"));
+        assertFalse(handler.handle("not registered"));
+    }
+
+    @Test
+    public void shouldLoadPermissionsOnlyOnce_untilInvalidated() {
+        when(authHolder.getUser()).thenReturn(new User(2L, "John Doe", "jdoe@domain.com"));
+        when(userRoleService.getUserRoles(2L)).thenReturn(List.of(
+                new RoleDTO(1L, RolesEnum.COMMON.toString(), List.of(new PermissionDTO(1L, "foo")))
+        ));
+
+        assertTrue(handler.handle("foo"));
+        assertFalse(handler.handle("lorem"));
+
+        verify(userRoleService, times(1)).getUserRoles(2L);
+
+        when(userRoleService.getUserRoles(2L)).thenReturn(List.of(
+                new RoleDTO(1L, RolesEnum.COMMON.toString(), List.of(new PermissionDTO(3L, "lorem")))
+        ));
+
+        permissionCache.invalidate(2L);
+
+        assertTrue(handler.handle("lorem"));
+        assertFalse(handler.handle("foo"));
+        verify(cache).publish("auth_permission_invalidations", "2");
+    }
+
+    @Test
+    public void shouldFail_whenRolesCarryUnregisteredPermission() {
+        when(authHolder.getUser()).thenReturn(new User(2L, "John Doe", "jdoe@domain.com"));
+        when(userRoleService.getUserRoles(2L)).thenReturn(List.of(
+                new RoleDTO(1L, RolesEnum.COMMON.toString(), List.of(new PermissionDTO(9L, "created later")))
+        ));
+
+        assertThrows(UnknownPermissionException.class, () -> handler.handle("foo"));
+        assertEquals(PermissionRegistry.UNKNOWN, permissionRegistry.getId("created later"));
+    }
+
+    @Test
+    public void shouldAuthorizeFromTokenClaims_withoutLookingPermissionsUp() {
+        PermissionClaims permissionClaims = new PermissionClaims(true, this.permissionRegistry);
+        String encoded = permissionClaims.toClaims(List.of(
+                new RoleDTO(1L, RolesEnum.COMMON.toString(), List.of(new PermissionDTO(3L, "lorem")))
+        )).getFirst().value();
+
+        when(authHolder.getClaims()).thenReturn(new TokenClaimsDTO(2L, null, null, null, null, encoded));
+
+        AuthorizationInterceptorHandler claimsHandler = this.createHandler(true);
+
+        assertTrue(claimsHandler.handle("lorem"));
+        assertFalse(claimsHandler.handle("foo"));
+        assertFalse(claimsHandler.handle("not registered"));
+        verify(authHolder, never()).getUser();
+        verify(userRoleService, never()).getUserRoles(any());
+    }
+
+    @Test
+    public void shouldAuthorizeSuperUsersFromTokenClaims() {
+        when(authHolder.getClaims()).thenReturn(new TokenClaimsDTO(1L, null, null, null, null, "*"));
+
+        assertTrue(this.createHandler(true).handle("not registered"));
+        verify(userRoleService, never()).getUserRoles(any());
+    }
+
+    @Test
+    public void shouldLookPermissionsUp_whenTokenCarriesNoClaim() {
+        when(authHolder.getClaims()).thenReturn(new TokenClaimsDTO(2L, null, null, null, null, null));
+        when(authHolder.getUser()).thenReturn(new User(2L, "John Doe", "jdoe@domain.com"));
+        when(userRoleService.getUserRoles(2L)).thenReturn(List.of(
+                new RoleDTO(1L, RolesEnum.COMMON.toString(), List.of(new PermissionDTO(1L, "foo")))
+        ));
+
+        assertTrue(this.createHandler(true).handle("foo"));
+    }
+
+    @Test
+    public void shouldIgnoreTokenClaims_inLookupMode() {
+        when(authHolder.getClaims()).thenReturn(new TokenClaimsDTO(2L, null, null, null, null, "*"));
+        when(authHolder.getUser()).thenReturn(new User(2L, "John Doe", "jdoe@domain.com"));
+        when(userRoleService.getUserRoles(2L)).thenReturn(List.of());
+
+        assertFalse(handler.handle("foo"));
     }
 }
@@ -0,0 +1,150 @@
+package com.app.application.util.authorization;
+
+import com.app.application.dto.authorization.PermissionDTO;
+import com.app.application.dto.authorization.RoleDTO;
+import com.app.infrastructure.cache.CacheInterface;
+import com.app.infrastructure.cache.exception.CacheException;
+import com.app.infrastructure.persistence.entity.Permission;
+import com.app.infrastructure.persistence.entity.Role;
+import com.app.infrastructure.persistence.exceptions.EntityNotFoundException;
+import com.app.infrastructure.persistence.repository.FetchPlans;
+import com.app.infrastructure.persistence.repository.RepositoryInterface;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class RoleCatalogTest {
+    @Mock
+    private RepositoryInterface<Role> roleRepository;
+
+    @Mock
+    private RepositoryInterface<Permission> permissionRepository;
+
+    @Mock
+    private CacheInterface cache;
+
+    private RoleCatalog roleCatalog;
+
+    @BeforeEach
+    public void init() {
+        MockitoAnnotations.openMocks(this);
+
+        Role admin = new Role(1L, "admin");
+        admin.getPermissions().add(new Permission(2L, "retrieve users"));
+        admin.getPermissions().add(new Permission(1L, "create users"));
+
+        when(roleRepository.getAll(FetchPlans.ROLE_PERMISSIONS)).thenReturn(List.of(admin, new Role(2L, "common")));
+        when(permissionRepository.getAll()).thenReturn(List.of(new Permission(2L, "retrieve users"), new Permission(1L, "create users")));
+
+        this.roleCatalog = new RoleCatalog(this.roleRepository, this.permissionRepository, this.cache);
+    }
+
+    @Test
+    public void shouldServeRolesAndPermissionsFromSnapshot() {
+        when(cache.get("role_catalog_version")).thenReturn("3");
+        when(roleRepository.getById(3L, FetchPlans.ROLE_PERMISSIONS)).thenThrow(new EntityNotFoundException("Role with id 3 not found."));
+
+        roleCatalog.refresh();
+
+        assertEquals(3, roleCatalog.getVersion());
+        assertEquals(
+                new RoleDTO(1L, "admin", List.of(new PermissionDTO(1L, "create users"), new PermissionDTO(2L, "retrieve users"))),
+                roleCatalog.getRole(1L)
+        );
+        assertNull(roleCatalog.getRole(3L));
+        assertEquals(new PermissionDTO(2L, "retrieve users"), roleCatalog.getPermission(2L));
+        assertEquals(List.of(new PermissionDTO(1L, "create users"), new PermissionDTO(2L, "retrieve users")), roleCatalog.getPermissions());
+        assertEquals(
+                "[{\"id\":2,\"name\":\"common\",\"permissions\":[]}]",
+                roleCatalog.getRolesJson(List.of(2L, 3L))
+        );
+
+        roleCatalog.getRoles();
+        roleCatalog.getRole(2L);
+
+        verify(roleRepository, times(1)).getAll(FetchPlans.ROLE_PERMISSIONS);
+    }
+
+    @Test
+    public void shouldReload_onlyWhenVersionChanges() {
+        when(cache.get("role_catalog_version")).thenReturn("1");
+
+        roleCatalog.refresh();
+        roleCatalog.refresh();
+
+        verify(roleRepository, times(1)).getAll(FetchPlans.ROLE_PERMISSIONS);
+
+        when(roleRepository.getAll(FetchPlans.ROLE_PERMISSIONS)).thenReturn(List.of());
+        when(cache.get("role_catalog_version")).thenReturn("2");
+
+        roleCatalog.refresh();
+
+        assertNull(roleCatalog.getRole(1L));
+        assertEquals(2, roleCatalog.getVersion());
+    }
+
+    @Test
+    public void shouldLoadRolesMissingFromSnapshot_whenBuildingJson() {
+        when(cache.get("role_catalog_version")).thenReturn("1");
+
+        Role editor = new Role(3L, "editor");
+        editor.getPermissions().add(new Permission(2L, "retrieve users"));
+
+        when(roleRepository.getById(3L, FetchPlans.ROLE_PERMISSIONS)).thenReturn(editor);
+
+        assertEquals(
+                "[{\"id\":2,\"name\":\"common\",\"permissions\":[]},"
+                        + "{\"id\":3,\"name\":\"editor\",\"permissions\":[{\"id\":2,\"name\":\"retrieve users\"}]}]",
+                roleCatalog.getRolesJson(List.of(2L, 3L))
+        );
+        verify(roleRepository, never()).getById(2L, FetchPlans.ROLE_PERMISSIONS);
+    }
+
+    @Test
+    public void shouldHandLoadedPermissionsToListeners() {
+        when(cache.get("role_catalog_version")).thenReturn("1");
+
+        PermissionRegistry permissionRegistry = new PermissionRegistry(List.of());
+        roleCatalog.onPermissionsLoaded(permissionRegistry::registerAll);
+
+        roleCatalog.refresh();
+
+        assertEquals(2, permissionRegistry.getId("retrieve users"));
+
+        when(permissionRepository.getAll()).thenReturn(List.of(new Permission(3L, "delete users")));
+        when(cache.get("role_catalog_version")).thenReturn("2");
+
+        roleCatalog.refresh();
+
+        assertEquals(3, permissionRegistry.getId("delete users"));
+    }
+
+    @Test
+    public void shouldKeepServingSnapshot_whenReloadFails() {
+        when(cache.get("role_catalog_version")).thenReturn("1");
+
+        roleCatalog.refresh();
+
+        when(cache.get("role_catalog_version")).thenReturn("2");
+        when(roleRepository.getAll(FetchPlans.ROLE_PERMISSIONS)).thenThrow(new RuntimeException("Connection refused"));
+
+        roleCatalog.refresh();
+
+        assertEquals(1, roleCatalog.getVersion());
+        assertNotNull(roleCatalog.getRole(1L));
+    }
+
+    @Test
+    public void shouldLoadOnFirstRead_evenWithoutCache() {
+        when(cache.get("role_catalog_version")).thenThrow(new CacheException("Connection refused"));
+
+        assertNotNull(roleCatalog.getRole(1L));
+        assertEquals(-1, roleCatalog.getVersion());
+    }
+}
@@ -0,0 +1,77 @@
+package com.app.application.util.authorization;
+
+import com.app.application.dto.authorization.PermissionDTO;
+import com.app.application.dto.authorization.RoleDTO;
+import com.app.application.util.authorization.exception.UnknownPermissionException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserPermissionsTest {
+    private final PermissionRegistry registry = new PermissionRegistry(List.of(
+            new PermissionDTO(1L, "foo"),
+            new PermissionDTO(9L, "baz"),
+            new PermissionDTO(70L, "bar")
+    ));
+
+    @Test
+    public void shouldDecodeWhatItEncodes() {
+        UserPermissions permissions = UserPermissions.of(List.of(
+                new RoleDTO(1L, RolesEnum.COMMON.toString(), List.of(
+                        new PermissionDTO(1L, "foo"),
+                        new PermissionDTO(70L, "bar")
+                ))
+        ), this.registry);
+
+        UserPermissions decoded = UserPermissions.decode(permissions.encode());
+
+        assertTrue(decoded.allows(1));
+        assertTrue(decoded.allows(70));
+        assertFalse(decoded.allows(0));
+        assertFalse(decoded.allows(71));
+        assertFalse(decoded.allows(PermissionRegistry.UNKNOWN));
+    }
+
+    @Test
+    public void shouldEncodeBitsByDatabaseId() {
+        UserPermissions permissions = UserPermissions.of(List.of(
+                new RoleDTO(1L, RolesEnum.COMMON.toString(), List.of(new PermissionDTO(9L, "baz")))
+        ), this.registry);
+
+        // bit 9 lives in the second byte
+        assertEquals("AAI", permissions.encode());
+    }
+
+    @Test
+    public void shouldFail_whenPermissionIsNotRegistered() {
+        UnknownPermissionException exception = assertThrows(
+                UnknownPermissionException.class,
+                () -> UserPermissions.of(List.of(
+                        new RoleDTO(1L, RolesEnum.COMMON.toString(), List.of(new PermissionDTO(12L, "qux")))
+                ), this.registry)
+        );
+
+        assertEquals("Permission qux is not registered.", exception.getMessage());
+        assertEquals(PermissionRegistry.UNKNOWN, this.registry.getId("qux"));
+    }
+
+    @Test
+    public void shouldEncodeSuperUsersAsWildcard() {
+        UserPermissions permissions = UserPermissions.of(List.of(
+                new RoleDTO(1L, RolesEnum.SUPER.toString(), List.of(new PermissionDTO(1L, "foo")))
+        ), this.registry);
+
+        assertEquals("*", permissions.encode());
+        assertTrue(UserPermissions.decode("*").allows(PermissionRegistry.UNKNOWN));
+    }
+
+    @Test
+    public void shouldEncodeUsersWithoutPermissionsAsEmptyClaim() {
+        UserPermissions permissions = UserPermissions.of(List.of(), this.registry);
+
+        assertEquals("", permissions.encode());
+        assertFalse(UserPermissions.decode("").allows(1));
+    }
+}
@@ -0,0 +1,45 @@
+package com.app.application.util.export;
+
+import com.app.application.dto.user.UserResponseDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserExportWriterTest {
+    private final UserExportWriter exportWriter = new UserExportWriter();
+
+    @Test
+    public void shouldWriteOneJsonObjectPerLine() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        exportWriter.write(Stream.of(
+                new UserResponseDTO(1L, "John Doe", "jdoe@domain.com", null, "2024-04-04", null, null),
+                new UserResponseDTO(2L, "Jane Doe", "janedoe@domain.com", null, null, null, null)
+        ), ExportFormat.NDJSON, output);
+
+        assertEquals(
+                "{\"id\":1,\"name\":\"John Doe\",\"email\":\"jdoe@domain.com\",\"picture\":null,\"created_at\":\"2024-04-04\",\"updated_at\":null,\"deleted_at\":null}\n"
+                        + "{\"id\":2,\"name\":\"Jane Doe\",\"email\":\"janedoe@domain.com\",\"picture\":null,\"created_at\":null,\"updated_at\":null,\"deleted_at\":null}\n",
+                output.toString(StandardCharsets.UTF_8)
+        );
+    }
+
+    @Test
+    public void shouldWriteCsv_quotingValuesThatNeedIt() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        exportWriter.write(Stream.of(
+                new UserResponseDTO(1L, "Doe, \"John\"", "jdoe@domain.com", null, "2024-04-04", null, null)
+        ), ExportFormat.CSV, output);
+
+        assertEquals(
+                "id,name,email,picture,created_at,updated_at,deleted_at\n"
+                        + "1,\"Doe, \"\"John\"\"\",jdoe@domain.com,,2024-04-04,,\n",
+                output.toString(StandardCharsets.UTF_8)
+        );
+    }
+}
@@ -0,0 +1,65 @@
+package com.app.infrastructure.cache;
+
+import com.app.infrastructure.security.auth.TokenFingerprint;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BloomFilterTest {
+
+    @Test
+    public void shouldContainInsertedHashes() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+
+        for (int i = 0; i < 1000; i++) {
+            filter.put(TokenFingerprint.digest("token_" + i));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain(TokenFingerprint.digest("token_" + i)));
+        }
+    }
+
+    @Test
+    public void shouldKeepFalsePositivesNearConfiguredRate() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+
+        for (int i = 0; i < 1000; i++) {
+            filter.put(TokenFingerprint.digest("token_" + i));
+        }
+
+        int falsePositives = 0;
+
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain(TokenFingerprint.digest("other_token_" + i))) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 300);
+    }
+
+    @Test
+    public void shouldForgetHashesWhenCleared() {
+        BloomFilter filter = new BloomFilter(10, 0.01);
+        byte[] hash = TokenFingerprint.digest("token");
+
+        filter.put(hash);
+        filter.clear();
+
+        assertFalse(filter.mightContain(hash));
+    }
+
+    @Test
+    public void shouldNotAcceptShortHashes() {
+        BloomFilter filter = new BloomFilter(10, 0.01);
+
+        assertThrows(IllegalArgumentException.class, () -> filter.put(new byte[8]));
+    }
+
+    @Test
+    public void shouldNotAcceptInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 1));
+    }
+}
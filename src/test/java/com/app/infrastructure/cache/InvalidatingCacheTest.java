@@ -0,0 +1,132 @@
+package com.app.infrastructure.cache;
+
+import com.app.application.util.authentication.PrincipalCache;
+import com.app.application.util.authorization.PermissionCache;
+import com.app.infrastructure.cache.exception.CacheException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class InvalidatingCacheTest {
+    private static final Object VALUE = new Object();
+    private static final long NOW = Instant.parse("2024-04-04T00:00:00Z").toEpochMilli();
+
+    @Mock
+    private CacheInterface cache;
+
+    @Mock
+    private Clock clock;
+
+    private AtomicInteger loads;
+
+    private Function<Long, Object> loader;
+
+    // every cache built on InvalidatingCache, with the channel it publishes invalidations on
+    private static Stream<Arguments> caches() {
+        return Stream.of(
+                Arguments.of("invalidations", factory((cache, clock) -> new InvalidatingCache<>(cache, "invalidations", clock, 60_000, 10))),
+                Arguments.of("auth_principal_invalidations", factory((cache, clock) -> new PrincipalCache(cache, clock, 60_000, 10))),
+                Arguments.of("auth_permission_invalidations", factory((cache, clock) -> new PermissionCache(cache, clock, 60_000, 10)))
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiFunction<CacheInterface, Clock, InvalidatingCache<Object>> factory(
+            BiFunction<CacheInterface, Clock, InvalidatingCache<?>> factory
+    ) {
+        return (cache, clock) -> (InvalidatingCache<Object>) factory.apply(cache, clock);
+    }
+
+    @BeforeEach
+    public void init() {
+        MockitoAnnotations.openMocks(this);
+        when(clock.millis()).thenReturn(NOW);
+        this.loads = new AtomicInteger();
+        this.loader = id -> {
+            this.loads.incrementAndGet();
+            return VALUE;
+        };
+    }
+
+    @ParameterizedTest
+    @MethodSource("caches")
+    public void shouldLoadOnlyOnce(String channel, BiFunction<CacheInterface, Clock, InvalidatingCache<Object>> factory) {
+        InvalidatingCache<Object> invalidatingCache = factory.apply(cache, clock);
+
+        assertSame(VALUE, invalidatingCache.get(1L, loader));
+        assertSame(VALUE, invalidatingCache.get(1L, loader));
+
+        assertEquals(1, loads.get());
+    }
+
+    @ParameterizedTest
+    @MethodSource("caches")
+    public void shouldReload_afterInvalidation(String channel, BiFunction<CacheInterface, Clock, InvalidatingCache<Object>> factory) {
+        InvalidatingCache<Object> invalidatingCache = factory.apply(cache, clock);
+
+        invalidatingCache.get(1L, loader);
+        invalidatingCache.invalidate(1L);
+        invalidatingCache.get(1L, loader);
+
+        assertEquals(2, loads.get());
+        verify(cache).publish(channel, "1");
+    }
+
+    @ParameterizedTest
+    @MethodSource("caches")
+    public void shouldInvalidateLocally_whenPublishingFails(String channel, BiFunction<CacheInterface, Clock, InvalidatingCache<Object>> factory) {
+        InvalidatingCache<Object> invalidatingCache = factory.apply(cache, clock);
+        doThrow(new CacheException("Connection refused")).when(cache).publish(anyString(), anyString());
+
+        invalidatingCache.get(1L, loader);
+        invalidatingCache.invalidate(1L);
+        invalidatingCache.get(1L, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @ParameterizedTest
+    @MethodSource("caches")
+    public void shouldReload_afterExpiration(String channel, BiFunction<CacheInterface, Clock, InvalidatingCache<Object>> factory) {
+        InvalidatingCache<Object> invalidatingCache = factory.apply(cache, clock);
+
+        invalidatingCache.get(1L, loader);
+        when(clock.millis()).thenReturn(NOW + 59_999);
+        invalidatingCache.get(1L, loader);
+        when(clock.millis()).thenReturn(NOW + 60_000);
+        invalidatingCache.get(1L, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @ParameterizedTest
+    @MethodSource("caches")
+    public void shouldEvict_whenOtherNodeInvalidates(String channel, BiFunction<CacheInterface, Clock, InvalidatingCache<Object>> factory) {
+        InvalidatingCache<Object> invalidatingCache = factory.apply(cache, clock);
+        invalidatingCache.listen();
+
+        ArgumentCaptor<Consumer<String>> onMessage = ArgumentCaptor.forClass(Consumer.class);
+        verify(cache).subscribe(eq(channel), any(Runnable.class), onMessage.capture());
+
+        invalidatingCache.get(1L, loader);
+        onMessage.getValue().accept("1");
+        invalidatingCache.get(1L, loader);
+
+        assertEquals(2, loads.get());
+    }
+}
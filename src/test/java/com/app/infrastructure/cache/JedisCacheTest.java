@@ -8,6 +8,12 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+
+import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -16,6 +22,9 @@ public class JedisCacheTest {
     @Mock
     private JedisPool jedisPool;
 
+    @Mock
+    private Supplier<Jedis> subscriberConnections;
+
     @InjectMocks
     private JedisCache jedisCache;
 
@@ -24,6 +33,20 @@ public class JedisCacheTest {
         MockitoAnnotations.openMocks(this);
     }
 
+    @Test
+    public void shouldSubscribeOverItsOwnConnection_outsideThePool() {
+        Jedis jedisMock = mock(Jedis.class);
+        when(subscriberConnections.get()).thenReturn(jedisMock);
+        doThrow(new JedisConnectionException("Connection refused"))
+                .when(jedisMock).subscribe(any(JedisPubSub.class), eq("foo"));
+
+        jedisCache.subscribe("foo", () -> {}, message -> {});
+
+        verify(jedisMock, timeout(1000)).subscribe(any(JedisPubSub.class), eq("foo"));
+        verify(jedisMock, timeout(1000)).close();
+        verify(jedisPool, never()).getResource();
+    }
+
     @Test
     public void shouldPutObjectInCache() {
         Jedis jedisMock = mock(Jedis.class);
@@ -41,6 +64,23 @@ public class JedisCacheTest {
         assertThrows(CacheException.class, () -> jedisCache.set("foo", "bar"));
     }
 
+    @Test
+    public void shouldPutExpiringObjectInCache() {
+        Jedis jedisMock = mock(Jedis.class);
+        when(jedisPool.getResource()).thenReturn(jedisMock);
+
+        jedisCache.set("foo", "bar", 60);
+
+        verify(jedisMock).setex("foo", 60L, "bar");
+    }
+
+    @Test
+    public void shouldNotPutExpiringObjectInCache() {
+        when(jedisPool.getResource()).thenReturn(null);
+
+        assertThrows(CacheException.class, () -> jedisCache.set("foo", "bar", 60));
+    }
+
     @Test
     public void shouldGetObjectFromCache() {
         Jedis jedisMock = mock(Jedis.class);
@@ -58,6 +98,22 @@ public class JedisCacheTest {
         assertThrows(CacheException.class, () -> jedisCache.get("foo"));
     }
 
+    @Test
+    public void shouldIncrementCounterInCache() {
+        Jedis jedisMock = mock(Jedis.class);
+        when(jedisPool.getResource()).thenReturn(jedisMock);
+        when(jedisMock.incr("foo")).thenReturn(2L);
+
+        assertEquals(2L, jedisCache.increment("foo"));
+    }
+
+    @Test
+    public void shouldNotIncrementCounterInCache() {
+        when(jedisPool.getResource()).thenReturn(null);
+
+        assertThrows(CacheException.class, () -> jedisCache.increment("foo"));
+    }
+
     @Test
     public void shouldPutObjectInCacheSet() {
         Jedis jedisMock = mock(Jedis.class);
@@ -91,4 +147,142 @@ public class JedisCacheTest {
 
         assertThrows(CacheException.class, () -> jedisCache.getList("foo"));
     }
+
+    @Test
+    public void shouldCheckSetMembershipInCache() {
+        Jedis jedisMock = mock(Jedis.class);
+        when(jedisPool.getResource()).thenReturn(jedisMock);
+        when(jedisMock.sismember("foo", "bar")).thenReturn(true);
+
+        assertTrue(jedisCache.isMember("foo", "bar"));
+    }
+
+    @Test
+    public void shouldNotCheckSetMembershipInCache() {
+        when(jedisPool.getResource()).thenReturn(null);
+
+        assertThrows(CacheException.class, () -> jedisCache.isMember("foo", "bar"));
+    }
+
+    @Test
+    public void shouldSampleSetMembersFromCache() {
+        Jedis jedisMock = mock(Jedis.class);
+        when(jedisPool.getResource()).thenReturn(jedisMock);
+
+        jedisCache.getListSample("foo", 10);
+
+        verify(jedisMock).srandmember("foo", 10);
+    }
+
+    @Test
+    public void shouldRemoveSetMembersFromCache() {
+        Jedis jedisMock = mock(Jedis.class);
+        when(jedisPool.getResource()).thenReturn(jedisMock);
+
+        jedisCache.removeFromList("foo", List.of("bar", "baz"));
+
+        verify(jedisMock).srem("foo", "bar", "baz");
+    }
+
+    @Test
+    public void shouldNotRemoveSetMembersFromCache() {
+        when(jedisPool.getResource()).thenReturn(null);
+
+        assertThrows(CacheException.class, () -> jedisCache.removeFromList("foo", List.of("bar")));
+    }
+
+    @Test
+    public void shouldPutObjectInCacheSortedSet() {
+        Jedis jedisMock = mock(Jedis.class);
+        when(jedisPool.getResource()).thenReturn(jedisMock);
+
+        jedisCache.addToSortedSet("foo", 1.0, "bar");
+
+        verify(jedisMock).zadd("foo", 1.0, "bar");
+    }
+
+    @Test
+    public void shouldNotPutObjectInCacheSortedSet() {
+        when(jedisPool.getResource()).thenReturn(null);
+
+        assertThrows(CacheException.class, () -> jedisCache.addToSortedSet("foo", 1.0, "bar"));
+    }
+
+    @Test
+    public void shouldGetSortedSetRangeFromCache() {
+        Jedis jedisMock = mock(Jedis.class);
+        when(jedisPool.getResource()).thenReturn(jedisMock);
+
+        jedisCache.getSortedSetRange("foo", 0, 10);
+
+        verify(jedisMock).zrangeByScore("foo", 0.0, 10.0);
+    }
+
+    @Test
+    public void shouldNotGetSortedSetRangeFromCache() {
+        when(jedisPool.getResource()).thenReturn(null);
+
+        assertThrows(CacheException.class, () -> jedisCache.getSortedSetRange("foo", 0, 10));
+    }
+
+    @Test
+    public void shouldRemoveSortedSetRangeFromCache() {
+        Jedis jedisMock = mock(Jedis.class);
+        when(jedisPool.getResource()).thenReturn(jedisMock);
+
+        jedisCache.removeSortedSetRange("foo", 0, 10);
+
+        verify(jedisMock).zremrangeByScore("foo", 0.0, 10.0);
+    }
+
+    @Test
+    public void shouldRunScriptBySha() {
+        Jedis jedisMock = mock(Jedis.class);
+        when(jedisPool.getResource()).thenReturn(jedisMock);
+        when(jedisMock.scriptLoad("return 1")).thenReturn("sha");
+        when(jedisMock.evalsha("sha", List.of("foo"), List.of("bar"))).thenReturn(1L);
+
+        assertEquals(1L, jedisCache.runScript("return 1", List.of("foo"), List.of("bar")));
+        assertEquals(1L, jedisCache.runScript("return 1", List.of("foo"), List.of("bar")));
+
+        verify(jedisMock, times(1)).scriptLoad("return 1");
+    }
+
+    @Test
+    public void shouldReloadScript_whenServerLostIt() {
+        Jedis jedisMock = mock(Jedis.class);
+        when(jedisPool.getResource()).thenReturn(jedisMock);
+        when(jedisMock.scriptLoad("return 1")).thenReturn("sha");
+        when(jedisMock.evalsha("sha", List.of("foo"), List.of("bar")))
+                .thenThrow(new JedisNoScriptException("NOSCRIPT"))
+                .thenReturn(1L);
+
+        assertEquals(1L, jedisCache.runScript("return 1", List.of("foo"), List.of("bar")));
+
+        verify(jedisMock, times(2)).scriptLoad("return 1");
+    }
+
+    @Test
+    public void shouldNotRunScript() {
+        when(jedisPool.getResource()).thenReturn(null);
+
+        assertThrows(CacheException.class, () -> jedisCache.runScript("return 1", List.of(), List.of()));
+    }
+
+    @Test
+    public void shouldPublishMessage() {
+        Jedis jedisMock = mock(Jedis.class);
+        when(jedisPool.getResource()).thenReturn(jedisMock);
+
+        jedisCache.publish("foo", "bar");
+
+        verify(jedisMock).publish("foo", "bar");
+    }
+
+    @Test
+    public void shouldNotPublishMessage() {
+        when(jedisPool.getResource()).thenReturn(null);
+
+        assertThrows(CacheException.class, () -> jedisCache.publish("foo", "bar"));
+    }
 }
@@ -0,0 +1,89 @@
+package com.app.infrastructure.controller;
+
+import com.app.application.dto.user.UserResponseDTO;
+import com.app.application.service.UserService;
+import com.app.application.util.export.ExportFormat;
+import com.app.application.util.export.UserExportWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.OutputStream;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class UserControllerTest {
+    @Mock
+    private UserService userService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void init() {
+        MockitoAnnotations.openMocks(this);
+        this.mockMvc = MockMvcBuilders.standaloneSetup(new UserController(userService)).build();
+
+        doAnswer(invocation -> {
+            new UserExportWriter().write(
+                    Stream.of(new UserResponseDTO(1L, "John Doe", "jdoe@domain.com", null, "2024-04-04", null, null)),
+                    invocation.getArgument(0),
+                    invocation.<OutputStream>getArgument(1)
+            );
+            return null;
+        }).when(userService).export(any(ExportFormat.class), any(OutputStream.class));
+    }
+
+    @Test
+    public void shouldStreamNdjsonExport() throws Exception {
+        MvcResult result = mockMvc.perform(get("/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users.ndjson"))
+                .andExpect(content().string(
+                        "{\"id\":1,\"name\":\"John Doe\",\"email\":\"jdoe@domain.com\",\"picture\":null,"
+                                + "\"created_at\":\"2024-04-04\",\"updated_at\":null,\"deleted_at\":null}\n"
+                ));
+    }
+
+    @Test
+    public void shouldStreamCsvExport() throws Exception {
+        MvcResult result = mockMvc.perform(get("/users/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users.csv"))
+                .andExpect(content().string(
+                        "id,name,email,picture,created_at,updated_at,deleted_at\n"
+                                + "1,John Doe,jdoe@domain.com,,2024-04-04,,\n"
+                ));
+    }
+
+    @Test
+    public void shouldRejectUnsupportedExportFormat() throws Exception {
+        MvcResult result = mockMvc.perform(get("/users/export").param("format", "xml"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("{\"error\":\"Unsupported export format.\"}"));
+
+        verify(userService, never()).export(any(), any());
+    }
+}
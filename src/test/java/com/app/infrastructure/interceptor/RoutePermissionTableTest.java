@@ -0,0 +1,69 @@
+package com.app.infrastructure.interceptor;
+
+import com.app.application.dto.authorization.PermissionDTO;
+import com.app.application.util.authorization.PermissionRegistry;
+import com.app.application.util.authorization.RequiresAuthorization;
+import com.app.infrastructure.interceptor.exception.AuthorizationConfigurationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoutePermissionTableTest {
+    private static class Controller {
+        @RequiresAuthorization("retrieve users")
+        public void index() {
+        }
+
+        public void open() {
+        }
+
+        @RequiresAuthorization("not in table")
+        public void misconfigured() {
+        }
+    }
+
+    private final Controller controller = new Controller();
+
+    private RoutePermissionTable table;
+
+    @BeforeEach
+    public void init() {
+        this.table = new RoutePermissionTable(new PermissionRegistry(List.of(new PermissionDTO(2L, "retrieve users"))));
+    }
+
+    private HandlerMethod handlerMethod(String name) throws NoSuchMethodException {
+        return new HandlerMethod(this.controller, Controller.class.getMethod(name));
+    }
+
+    @Test
+    public void shouldResolvePermissionIdsOfRegisteredRoutes() throws NoSuchMethodException {
+        HandlerMethod index = this.handlerMethod("index");
+        HandlerMethod open = this.handlerMethod("open");
+
+        this.table.build(List.of(index, open));
+
+        assertEquals(2, this.table.get(index));
+        assertEquals(RoutePermissionTable.NOT_REQUIRED, this.table.get(open));
+        assertEquals(2, this.table.get(index.createWithResolvedBean()));
+    }
+
+    @Test
+    public void shouldFailFast_whenRouteRequiresUnknownPermission() throws NoSuchMethodException {
+        AuthorizationConfigurationException exception = assertThrows(
+                AuthorizationConfigurationException.class,
+                () -> this.table.build(List.of(this.handlerMethod("index"), this.handlerMethod("misconfigured")))
+        );
+
+        assertTrue(exception.getMessage().contains("misconfigured"));
+    }
+
+    @Test
+    public void shouldReadAnnotation_forRoutesMissingFromTable() throws NoSuchMethodException {
+        assertEquals(2, this.table.get(this.handlerMethod("index")));
+        assertEquals(PermissionRegistry.UNKNOWN, this.table.get(this.handlerMethod("misconfigured")));
+    }
+}
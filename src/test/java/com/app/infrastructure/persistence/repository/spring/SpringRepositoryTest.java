@@ -1,9 +1,14 @@
 package com.app.infrastructure.persistence.repository.spring;
 
+import com.app.infrastructure.persistence.exceptions.AssociationTargetsNotFoundException;
 import com.app.infrastructure.persistence.exceptions.EntityNotFoundException;
+import com.app.infrastructure.persistence.exceptions.IllegalProjectionException;
 import com.app.infrastructure.persistence.exceptions.IllegalUpdateException;
 import com.app.infrastructure.persistence.criteria.*;
+import jakarta.persistence.EntityGraph;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnitUtil;
 import jakarta.persistence.TypedQuery;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,8 +16,19 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -51,6 +67,18 @@ class Entity2 {
     private String name;
 }
 
+record EntityName(Long id, String name) {
+}
+
+class Group {
+    private Long id;
+    private Set<Entity> members = new HashSet<>();
+
+    Set<Entity> getMembers() {
+        return members;
+    }
+}
+
 public class SpringRepositoryTest {
 
     @Mock
@@ -62,11 +90,15 @@ public class SpringRepositoryTest {
     @InjectMocks
     private SpringRepository<Entity2> repository2;
 
+    @InjectMocks
+    private SpringRepository<Group> groupRepository;
+
     @BeforeEach
     public void init() {
         MockitoAnnotations.openMocks(this);
         repository.setEntity(Entity.class);
         repository2.setEntity(Entity2.class);
+        groupRepository.setEntity(Group.class);
     }
 
     @Test
@@ -106,6 +138,163 @@ public class SpringRepositoryTest {
         assertEquals(entities, resultList);
     }
 
+    @Test
+    public void shouldFetchById_withRequestedFetchPlan() {
+        EntityGraph<?> graph = mock(EntityGraph.class);
+        Entity mockedEntity = new Entity();
+
+        doReturn(graph).when(entityManager).getEntityGraph("entity.plan");
+        when(entityManager.find(Entity.class, 1L, Map.of("jakarta.persistence.fetchgraph", graph))).thenReturn(mockedEntity);
+
+        assertEquals(mockedEntity, repository.getById(1L, "entity.plan"));
+    }
+
+    @Test
+    public void shouldGetAllEntities_withRequestedFetchPlan() {
+        @SuppressWarnings("unchecked")
+        TypedQuery<Entity> query = (TypedQuery<Entity>) mock(TypedQuery.class);
+        EntityGraph<?> graph = mock(EntityGraph.class);
+
+        doReturn(graph).when(entityManager).getEntityGraph("entity.plan");
+        when(entityManager.createQuery("SELECT e FROM Entity e", Entity.class)).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(new Entity()));
+
+        assertEquals(1, repository.getAll("entity.plan").size());
+        verify(query).setHint("jakarta.persistence.fetchgraph", graph);
+    }
+
+    @Test
+    public void shouldSyncAssociation_changingOnlyTheDifference() {
+        @SuppressWarnings("unchecked")
+        TypedQuery<Entity> query = (TypedQuery<Entity>) mock(TypedQuery.class);
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        PersistenceUnitUtil persistenceUnitUtil = mock(PersistenceUnitUtil.class);
+
+        Entity kept = new Entity(2L);
+        Entity removed = new Entity(1L);
+        Entity added = new Entity(3L);
+
+        Group group = new Group();
+        group.getMembers().add(removed);
+        group.getMembers().add(kept);
+
+        when(entityManager.find(Group.class, 1L)).thenReturn(group);
+        when(entityManager.createQuery("SELECT t FROM Entity t WHERE t.id IN :ids", Entity.class)).thenReturn(query);
+        when(query.setParameter("ids", List.of(2L, 3L))).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(kept, added));
+        when(entityManager.getEntityManagerFactory()).thenReturn(entityManagerFactory);
+        when(entityManagerFactory.getPersistenceUnitUtil()).thenReturn(persistenceUnitUtil);
+        when(persistenceUnitUtil.getIdentifier(any())).thenAnswer(invocation -> ((Entity) invocation.getArgument(0)).getId());
+
+        List<Entity> synced = groupRepository.syncAssociation(1L, null, "members", Entity.class, List.of(2L, 3L));
+
+        assertEquals(List.of(kept, added), synced);
+        assertEquals(Set.of(kept, added), group.getMembers());
+        verify(entityManager, never()).merge(any());
+    }
+
+    @Test
+    public void shouldNotSyncAssociation_whenSomeTargetsDoNotExist() {
+        @SuppressWarnings("unchecked")
+        TypedQuery<Entity> query = (TypedQuery<Entity>) mock(TypedQuery.class);
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        PersistenceUnitUtil persistenceUnitUtil = mock(PersistenceUnitUtil.class);
+
+        Entity kept = new Entity(2L);
+
+        Group group = new Group();
+        group.getMembers().add(kept);
+
+        when(entityManager.find(Group.class, 1L)).thenReturn(group);
+        when(entityManager.createQuery("SELECT t FROM Entity t WHERE t.id IN :ids", Entity.class)).thenReturn(query);
+        when(query.setParameter("ids", List.of(2L, 3L))).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(kept));
+        when(entityManager.getEntityManagerFactory()).thenReturn(entityManagerFactory);
+        when(entityManagerFactory.getPersistenceUnitUtil()).thenReturn(persistenceUnitUtil);
+        when(persistenceUnitUtil.getIdentifier(any())).thenAnswer(invocation -> ((Entity) invocation.getArgument(0)).getId());
+
+        AssociationTargetsNotFoundException exception = assertThrows(
+                AssociationTargetsNotFoundException.class,
+                () -> groupRepository.syncAssociation(1L, null, "members", Entity.class, List.of(2L, 3L))
+        );
+
+        assertEquals(List.of(3L), exception.getMissingIds());
+        assertEquals(Set.of(kept), group.getMembers());
+    }
+
+    @Test
+    public void shouldNotSyncAssociation_whenFieldIsNotACollection() {
+        when(entityManager.find(Entity.class, 1L)).thenReturn(new Entity(1L));
+
+        assertThrows(IllegalUpdateException.class, () -> repository.syncAssociation(1L, null, "name", Entity.class, List.of()));
+    }
+
+    @Test
+    public void shouldSelectOnlyProjectionFields_whenFiltering() {
+        @SuppressWarnings("unchecked")
+        TypedQuery<EntityName> query = mock(TypedQuery.class);
+        EntityName projection = new EntityName(1L, "foo");
+
+        when(entityManager.createQuery(
+                "SELECT new com.app.infrastructure.persistence.repository.spring.EntityName(entity.id, entity.name) "
+                        + "FROM Entity entity WHERE name = :name",
+                EntityName.class
+        )).thenReturn(query);
+        when(query.setParameter("name", "foo")).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(projection));
+
+        Criteria criteria = new Criteria();
+        criteria.equals("name", "foo");
+
+        assertEquals(List.of(projection), repository.getProjectionsByFilter(criteria, EntityName.class));
+        verify(entityManager, never()).createQuery(anyString(), eq(Entity.class));
+    }
+
+    @Test
+    public void shouldStreamEntities_detachingEachOne() {
+        @SuppressWarnings("unchecked")
+        TypedQuery<Entity> query = mock(TypedQuery.class);
+        Entity entity1 = new Entity(1L);
+        Entity entity2 = new Entity(2L);
+
+        when(entityManager.createQuery("SELECT entity FROM Entity entity ORDER BY id ASC", Entity.class)).thenReturn(query);
+        when(query.getResultStream()).thenReturn(Stream.of(entity1, entity2));
+
+        Criteria criteria = new Criteria();
+        criteria.order("id", OrderDirections.ASC);
+
+        List<Entity> streamed = new ArrayList<>();
+        repository.stream(criteria, entities -> entities.forEach(streamed::add));
+
+        assertEquals(List.of(entity1, entity2), streamed);
+        verify(query).setHint("org.hibernate.fetchSize", 1000);
+        verify(query).setHint("org.hibernate.readOnly", true);
+        verify(entityManager).detach(entity1);
+        verify(entityManager).detach(entity2);
+        verify(query, never()).getResultList();
+    }
+
+    @Test
+    public void shouldNotGetProjectionById_whenItDoesNotExist() {
+        @SuppressWarnings("unchecked")
+        TypedQuery<EntityName> query = mock(TypedQuery.class);
+
+        when(entityManager.createQuery(
+                "SELECT new com.app.infrastructure.persistence.repository.spring.EntityName(entity.id, entity.name) "
+                        + "FROM Entity entity WHERE entity.id = :id",
+                EntityName.class
+        )).thenReturn(query);
+        when(query.setParameter("id", 1L)).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of());
+
+        assertThrows(EntityNotFoundException.class, () -> repository.getProjectionById(1L, EntityName.class));
+    }
+
+    @Test
+    public void shouldNotProject_whenTargetIsNotARecord() {
+        assertThrows(IllegalProjectionException.class, () -> repository.getAllProjections(Entity2.class));
+    }
+
     @Test
     public void shouldCreateEntity() {
         Entity newEntity = new Entity();
@@ -248,6 +437,24 @@ public class SpringRepositoryTest {
         verify(query).getResultList();
     }
 
+    @Test
+    public void shouldTranslateCriteria_whenPaginatingByKeyset() {
+        @SuppressWarnings("unchecked")
+        TypedQuery<Entity> query = mock(TypedQuery.class);
+
+        when(entityManager.createQuery("SELECT entity FROM Entity entity WHERE id > :id ORDER BY id ASC", Entity.class)).thenReturn(query);
+        when(query.setParameter("id", 5L)).thenReturn(query);
+        when(query.setMaxResults(10)).thenReturn(query);
+
+        Criteria criteria = new Criteria();
+        criteria.after("id", 5L).order("id", OrderDirections.ASC).limit(10);
+
+        repository.getByFilter(criteria);
+
+        verify(query).setMaxResults(10);
+        verify(query).getResultList();
+    }
+
     @Test
     public void shouldTranslateCriteria_whenUsingNotEquals() {
         @SuppressWarnings("unchecked")
@@ -281,4 +488,39 @@ public class SpringRepositoryTest {
 
         verify(query).getResultList();
     }
+
+    @Test
+    public void shouldTranslateEachCriteriaOnItsOwn_whenFiltersAreBuiltConcurrently() throws Exception {
+        @SuppressWarnings("unchecked")
+        TypedQuery<Entity> query = mock(TypedQuery.class);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+
+        // both calls have translated their criteria before either query is created
+        CountDownLatch bothTranslated = new CountDownLatch(2);
+        List<String> jpqls = new CopyOnWriteArrayList<>();
+
+        when(entityManager.createQuery(anyString(), eq(Entity.class))).thenAnswer(invocation -> {
+            jpqls.add(invocation.getArgument(0));
+            bothTranslated.countDown();
+            bothTranslated.await(5, TimeUnit.SECONDS);
+            return query;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<?> byName = executor.submit(() -> repository.getByFilter(new Criteria().equals("name", "foo")));
+            Future<?> byId = executor.submit(() -> repository.getByFilter(new Criteria().equals("id", 1L)));
+
+            byName.get(5, TimeUnit.SECONDS);
+            byId.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(
+                Set.of("SELECT entity FROM Entity entity WHERE name = :name", "SELECT entity FROM Entity entity WHERE id = :id"),
+                Set.copyOf(jpqls)
+        );
+    }
 }
@@ -1,11 +1,19 @@
 package com.app.infrastructure.security.auth;
 
 import com.app.application.dto.auth.JwtClaimDTO;
+import com.app.application.dto.auth.TokenClaimsDTO;
 import com.app.infrastructure.security.auth.exception.AuthException;
 import com.auth0.jwt.algorithms.Algorithm;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -57,16 +65,145 @@ public class Auth0JWTHandlerTest {
     }
 
     @Test
-    public void shouldGetClaims() {
-        jwtHandler.validateToken(validToken);
-        List<JwtClaimDTO> claims = this.jwtHandler.getClaims();
+    public void shouldVerifyTokenAndReturnClaims() {
+        List<JwtClaimDTO> claims = new ArrayList<>();
+        claims.add(new JwtClaimDTO("userId", "1"));
+        claims.add(new JwtClaimDTO("type", "refresh"));
+        claims.add(new JwtClaimDTO("generation", "2"));
+        claims.add(new JwtClaimDTO("permissions", "Ag"));
+
+        Instant issuedAt = Instant.now();
+        Instant expiresAt = issuedAt.plus(Duration.ofHours(1));
+
+        String token = jwtHandler.createToken(claims, issuedAt, expiresAt);
+        TokenClaimsDTO tokenClaims = jwtHandler.verifyToken(token);
+
+        assertEquals(1L, tokenClaims.userId());
+        assertEquals("refresh", tokenClaims.type());
+        assertEquals(issuedAt.getEpochSecond(), tokenClaims.issuedAt());
+        assertEquals(expiresAt.getEpochSecond(), tokenClaims.expiresAt());
+        assertEquals(2L, tokenClaims.generation());
+        assertEquals("Ag", tokenClaims.permissions());
+    }
+
+    @Test
+    public void shouldNotVerifyToken_whenExpired() {
+        Instant issuedAt = Instant.now().minus(Duration.ofHours(2));
+
+        String token = jwtHandler.createToken(new ArrayList<>(), issuedAt, issuedAt.plus(Duration.ofHours(1)));
+
+        AuthException exception = assertThrows(AuthException.class, () -> jwtHandler.verifyToken(token));
+        assertEquals("Provided token is expired.", exception.getMessage());
+    }
+
+    @Test
+    public void shouldVerifyLegacyExpirationClaim_whenAccepted() {
+        Auth0JWTHandler legacyJwtHandler = new Auth0JWTHandler(Algorithm.HMAC256("secret"), true);
+
+        List<JwtClaimDTO> claims = new ArrayList<>();
+        claims.add(new JwtClaimDTO("expiresAt", "3000-01-01 00:00:00.000000"));
+
+        TokenClaimsDTO tokenClaims = legacyJwtHandler.verifyToken(legacyJwtHandler.createToken(claims));
 
-        assertEquals(claims.getFirst().key(), "iss");
-        assertEquals(claims.getFirst().value(), "auth0");
+        long expected = LocalDateTime.of(3000, 1, 1, 0, 0).atZone(ZoneId.systemDefault()).toEpochSecond();
+        assertEquals(expected, tokenClaims.expiresAt());
     }
 
     @Test
-    public void shouldNotGetClaims() {
-        assertThrows(AuthException.class, this.jwtHandler::getClaims, "JWT must be decoded in order to get it's claims.");
+    public void shouldNotVerifyLegacyExpirationClaim_withInvalidDate() {
+        Auth0JWTHandler legacyJwtHandler = new Auth0JWTHandler(Algorithm.HMAC256("secret"), true);
+
+        List<JwtClaimDTO> claims = new ArrayList<>();
+        claims.add(new JwtClaimDTO("expiresAt", "foobarbaz"));
+
+        String token = legacyJwtHandler.createToken(claims);
+
+        AuthException exception = assertThrows(AuthException.class, () -> legacyJwtHandler.verifyToken(token));
+        assertEquals("Date parsing failed.", exception.getMessage());
+    }
+
+    @Test
+    public void shouldIgnoreLegacyExpirationClaim_whenNotAccepted() {
+        List<JwtClaimDTO> claims = new ArrayList<>();
+        claims.add(new JwtClaimDTO("expiresAt", "3000-01-01 00:00:00.000000"));
+
+        TokenClaimsDTO tokenClaims = jwtHandler.verifyToken(jwtHandler.createToken(claims));
+
+        assertNull(tokenClaims.expiresAt());
+    }
+
+    @Test
+    public void shouldNotVerifyToken() {
+        assertThrows(AuthException.class, () -> jwtHandler.verifyToken("invalid_token"), "Token validation failed");
+    }
+
+    @Test
+    public void shouldNotVerifyToken_withInvalidUserId() {
+        List<JwtClaimDTO> claims = new ArrayList<>();
+        claims.add(new JwtClaimDTO("userId", "foo"));
+
+        String token = jwtHandler.createToken(claims);
+
+        assertThrows(AuthException.class, () -> jwtHandler.verifyToken(token), "Token carries an invalid user id.");
+    }
+
+    @Test
+    public void shouldVerifyToken_signedWithEdDSA() throws NoSuchAlgorithmException {
+        KeyPair keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        Auth0JWTHandler edDSAJwtHandler = new Auth0JWTHandler(new EdDSAAlgorithm.Ed25519(keyPair.getPublic(), keyPair.getPrivate()));
+
+        List<JwtClaimDTO> claims = new ArrayList<>();
+        claims.add(new JwtClaimDTO("userId", "1"));
+
+        String token = edDSAJwtHandler.createToken(claims);
+
+        assertEquals(1L, edDSAJwtHandler.verifyToken(token).userId());
+        assertThrows(AuthException.class, () -> edDSAJwtHandler.verifyToken(token.substring(0, token.length() - 4) + "AAAA"));
+    }
+
+    @Test
+    public void shouldVerifyToken_signedWithPreviousAlgorithm() {
+        String previousToken = jwtHandler.createToken(new ArrayList<>());
+
+        Auth0JWTHandler switchedJwtHandler = new Auth0JWTHandler(
+                Algorithm.HMAC384("new_secret"),
+                List.of(Algorithm.HMAC256("secret")),
+                false
+        );
+
+        assertTrue(switchedJwtHandler.validateToken(previousToken));
+        assertTrue(switchedJwtHandler.validateToken(switchedJwtHandler.createToken(new ArrayList<>())));
+    }
+
+    @Test
+    public void shouldNotVerifyToken_signedWithUnknownAlgorithm() {
+        String previousToken = jwtHandler.createToken(new ArrayList<>());
+
+        Auth0JWTHandler switchedJwtHandler = new Auth0JWTHandler(Algorithm.HMAC384("new_secret"));
+
+        AuthException exception = assertThrows(AuthException.class, () -> switchedJwtHandler.verifyToken(previousToken));
+        assertEquals("Token validation failed", exception.getMessage());
+    }
+
+    @Test
+    public void shouldVerifyToken_signedWithPreviousKey() {
+        String previousToken = jwtHandler.createToken(new ArrayList<>());
+
+        Auth0JWTHandler rotatedJwtHandler = new Auth0JWTHandler(
+                Algorithm.HMAC256("rotated_secret"),
+                List.of(Algorithm.HMAC256("secret")),
+                false
+        );
+
+        assertTrue(rotatedJwtHandler.validateToken(previousToken));
+
+        Auth0JWTHandler unrelatedJwtHandler = new Auth0JWTHandler(
+                Algorithm.HMAC256("rotated_secret"),
+                List.of(Algorithm.HMAC256("other_secret")),
+                false
+        );
+
+        AuthException exception = assertThrows(AuthException.class, () -> unrelatedJwtHandler.verifyToken(previousToken));
+        assertEquals("Token validation failed", exception.getMessage());
     }
 }
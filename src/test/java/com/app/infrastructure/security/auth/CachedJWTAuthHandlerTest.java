@@ -0,0 +1,88 @@
+package com.app.infrastructure.security.auth;
+
+import com.app.application.dto.auth.TokenClaimsDTO;
+import com.app.infrastructure.security.auth.exception.AuthException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CachedJWTAuthHandlerTest {
+    private static final TokenClaimsDTO VALID_CLAIMS = new TokenClaimsDTO(1L, null, null, 32503680000L, null, null);
+
+    @Mock
+    private JWTAuthInterface handler;
+
+    private CachedJWTAuthHandler cachedHandler;
+
+    @BeforeEach
+    public void init() {
+        MockitoAnnotations.openMocks(this);
+        this.cachedHandler = new CachedJWTAuthHandler(this.handler, Clock.systemUTC(), 2);
+    }
+
+    @Test
+    public void shouldVerifyOnlyOnce_whenTokenIsCached() {
+        when(handler.verifyToken("jwt_token")).thenReturn(VALID_CLAIMS);
+
+        assertEquals(VALID_CLAIMS, cachedHandler.verifyToken("jwt_token"));
+        assertEquals(VALID_CLAIMS, cachedHandler.verifyToken("jwt_token"));
+
+        verify(handler, times(1)).verifyToken("jwt_token");
+        assertEquals(1, cachedHandler.getHits());
+        assertEquals(1, cachedHandler.getMisses());
+        assertEquals(1, cachedHandler.getSize());
+    }
+
+    @Test
+    public void shouldNotCacheExpiredTokens() {
+        TokenClaimsDTO expiredClaims = new TokenClaimsDTO(1L, null, null, 946684800L, null, null);
+        when(handler.verifyToken("jwt_token")).thenReturn(expiredClaims);
+
+        cachedHandler.verifyToken("jwt_token");
+        cachedHandler.verifyToken("jwt_token");
+
+        verify(handler, times(2)).verifyToken("jwt_token");
+        assertEquals(0, cachedHandler.getSize());
+    }
+
+    @Test
+    public void shouldNotCacheInvalidTokens() {
+        when(handler.verifyToken("invalid_token")).thenThrow(new AuthException("Token validation failed"));
+
+        assertThrows(AuthException.class, () -> cachedHandler.verifyToken("invalid_token"));
+        assertThrows(AuthException.class, () -> cachedHandler.verifyToken("invalid_token"));
+
+        verify(handler, times(2)).verifyToken("invalid_token");
+    }
+
+    @Test
+    public void shouldVerifyAgain_afterInvalidation() {
+        when(handler.verifyToken("jwt_token")).thenReturn(VALID_CLAIMS);
+
+        cachedHandler.verifyToken("jwt_token");
+        cachedHandler.invalidate("jwt_token");
+        cachedHandler.verifyToken("jwt_token");
+
+        verify(handler, times(2)).verifyToken("jwt_token");
+        verify(handler).invalidate("jwt_token");
+        assertEquals(1, cachedHandler.getEvictions());
+    }
+
+    @Test
+    public void shouldStayBounded() {
+        when(handler.verifyToken(anyString())).thenReturn(VALID_CLAIMS);
+
+        cachedHandler.verifyToken("first_token");
+        cachedHandler.verifyToken("second_token");
+        cachedHandler.verifyToken("third_token");
+
+        assertEquals(2, cachedHandler.getSize());
+        assertEquals(1, cachedHandler.getEvictions());
+    }
+}
@@ -0,0 +1,84 @@
+package com.app.infrastructure.security.auth;
+
+import com.app.application.dto.auth.JwtClaimDTO;
+import com.auth0.jwt.algorithms.Algorithm;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SigningAlgorithmBenchmark {
+    private static final List<JwtClaimDTO> CLAIMS = List.of(new JwtClaimDTO("userId", "1"));
+
+    @Param({"RS256", "ES256", "EdDSA"})
+    private String algorithm;
+
+    private Auth0JWTHandler jwtHandler;
+    private String token;
+
+    @Setup
+    public void setup() throws NoSuchAlgorithmException {
+        this.jwtHandler = new Auth0JWTHandler(this.createAlgorithm(), false);
+
+        Instant issuedAt = Instant.now();
+        this.token = this.jwtHandler.createToken(CLAIMS, issuedAt, issuedAt.plus(Duration.ofHours(1)));
+    }
+
+    @Benchmark
+    public String sign() {
+        Instant issuedAt = Instant.now();
+
+        return this.jwtHandler.createToken(CLAIMS, issuedAt, issuedAt.plus(Duration.ofHours(1)));
+    }
+
+    @Benchmark
+    public Object verify() {
+        return this.jwtHandler.verifyToken(this.token);
+    }
+
+    private Algorithm createAlgorithm() throws NoSuchAlgorithmException {
+        return switch (this.algorithm) {
+            case "RS256" -> {
+                KeyPair keyPair = this.generateKeyPair("RSA", 2048);
+                yield Algorithm.RSA256((RSAPublicKey) keyPair.getPublic(), (RSAPrivateKey) keyPair.getPrivate());
+            }
+            case "ES256" -> {
+                KeyPair keyPair = this.generateKeyPair("EC", 256);
+                yield Algorithm.ECDSA256((ECPublicKey) keyPair.getPublic(), (ECPrivateKey) keyPair.getPrivate());
+            }
+            default -> {
+                KeyPair keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+                yield new EdDSAAlgorithm.Ed25519(keyPair.getPublic(), keyPair.getPrivate());
+            }
+        };
+    }
+
+    private KeyPair generateKeyPair(String algorithm, int keySize) throws NoSuchAlgorithmException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm);
+        generator.initialize(keySize);
+
+        return generator.generateKeyPair();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SigningAlgorithmBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -1,5 +1,6 @@
 package com.app.infrastructure.security.auth;
 
+import com.app.application.dto.auth.TokenClaimsDTO;
 import com.app.domain.entity.User;
 import com.app.infrastructure.security.auth.exception.AuthException;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,7 +19,8 @@ public class SpringAuthHolderTest {
     @Test
     public void shouldSetAndGetAuthenticatedUser() {
         User user = new User(1L, "John Doe", "jdoe@doamin.com");
-        this.authHolder.setAuth(user, "user_token");
+        TokenClaimsDTO claims = new TokenClaimsDTO(1L, null, null, null, null, "*");
+        this.authHolder.setAuth(user, "user_token", claims);
 
         User authenticatedUser = this.authHolder.getUser();
 
@@ -26,6 +28,7 @@ public class SpringAuthHolderTest {
 
         String authenticatedToken = this.authHolder.getToken();
         assertEquals(authenticatedToken, "user_token");
+        assertEquals(claims, this.authHolder.getClaims());
     }
 
     @Test
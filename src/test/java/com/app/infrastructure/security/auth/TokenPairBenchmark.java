@@ -0,0 +1,84 @@
+package com.app.infrastructure.security.auth;
+
+import com.app.application.dto.auth.JwtClaimDTO;
+import com.auth0.jwt.algorithms.Algorithm;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// the token work of a login (sign both tokens) and of a refresh (verify the refresh token, sign a new pair),
+// with refresh tokens signed by the access token rsa key as before or by an hmac secret
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenPairBenchmark {
+    private static final List<JwtClaimDTO> ACCESS_CLAIMS = List.of(new JwtClaimDTO("userId", "1"));
+    private static final List<JwtClaimDTO> REFRESH_CLAIMS = List.of(new JwtClaimDTO("userId", "1"), new JwtClaimDTO("type", "refresh"));
+
+    @Param({"RS256", "HS256"})
+    private String refreshAlgorithm;
+
+    private Auth0JWTHandler accessHandler;
+    private Auth0JWTHandler refreshHandler;
+    private String refreshToken;
+
+    @Setup
+    public void setup() throws NoSuchAlgorithmException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        Algorithm rsa = Algorithm.RSA256((RSAPublicKey) keyPair.getPublic(), (RSAPrivateKey) keyPair.getPrivate());
+
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+
+        this.accessHandler = new Auth0JWTHandler(rsa, false);
+        this.refreshHandler = this.refreshAlgorithm.equals("HS256")
+                ? new Auth0JWTHandler(Algorithm.HMAC256(secret), false)
+                : this.accessHandler;
+
+        Instant issuedAt = Instant.now();
+        this.refreshToken = this.refreshHandler.createToken(REFRESH_CLAIMS, issuedAt, issuedAt.plus(Duration.ofHours(4)));
+    }
+
+    @Benchmark
+    public String[] login() {
+        return this.signPair();
+    }
+
+    @Benchmark
+    public String[] refresh() {
+        this.refreshHandler.verifyToken(this.refreshToken);
+
+        return this.signPair();
+    }
+
+    private String[] signPair() {
+        Instant issuedAt = Instant.now();
+
+        return new String[]{
+                this.accessHandler.createToken(ACCESS_CLAIMS, issuedAt, issuedAt.plus(Duration.ofHours(1))),
+                this.refreshHandler.createToken(REFRESH_CLAIMS, issuedAt, issuedAt.plus(Duration.ofHours(4)))
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TokenPairBenchmark.class.getSimpleName()).build()).run();
+    }
+}
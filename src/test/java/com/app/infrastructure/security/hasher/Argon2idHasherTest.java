@@ -0,0 +1,44 @@
+package com.app.infrastructure.security.hasher;
+
+import com.app.infrastructure.security.hasher.exception.HasherException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Argon2idHasherTest {
+
+    @Test
+    public void shouldEncodeParametersInSalt() {
+        Argon2idHasher hasher = new Argon2idHasher(1024, 1, 1);
+
+        assertTrue(hasher.getSalt().startsWith("$argon2id$v=19$m=1024,t=1,p=1$"));
+    }
+
+    @Test
+    public void shouldValidateHash() {
+        Argon2idHasher hasher = new Argon2idHasher(1024, 1, 1);
+
+        String hash = hasher.getHash("123456", hasher.getSalt());
+
+        assertTrue(hasher.checkHash(hash, "123456"));
+        assertFalse(hasher.checkHash(hash, "1234567890"));
+    }
+
+    @Test
+    public void shouldValidateHash_withParametersStoredInIt() {
+        String hash = new Argon2idHasher(2048, 2, 1).getHash("123456", new Argon2idHasher(2048, 2, 1).getSalt());
+
+        Argon2idHasher hasher = new Argon2idHasher(1024, 1, 1);
+
+        assertTrue(hasher.checkHash(hash, "123456"));
+        assertTrue(hasher.needsRehash(hash));
+        assertFalse(hasher.needsRehash(hasher.getHash("123456", hasher.getSalt())));
+    }
+
+    @Test
+    public void shouldRejectMalformedHash() {
+        Argon2idHasher hasher = new Argon2idHasher(1024, 1, 1);
+
+        assertThrows(HasherException.class, () -> hasher.checkHash("$argon2id$v=19$m=1024$salt", "123456"));
+    }
+}
@@ -0,0 +1,68 @@
+package com.app.infrastructure.security.hasher;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class HasherBenchmark {
+    private static final String PASSWORD = "Password1";
+
+    // "<algorithm>:<parameters>", bcrypt takes the cost, argon2id memory kb, iterations and lanes, pbkdf2 iterations
+    @Param({
+            "bcrypt:10",
+            "bcrypt:12",
+            "argon2id:19456:2:1",
+            "argon2id:65536:3:1",
+            "pbkdf2:310000",
+            "pbkdf2:600000"
+    })
+    private String configuration;
+
+    private HasherInterface hasher;
+    private String hash;
+
+    @Setup
+    public void setup() {
+        String[] parts = this.configuration.split(":");
+
+        this.hasher = switch (parts[0]) {
+            case "bcrypt" -> new SpringBcryptHasher(Integer.parseInt(parts[1]));
+            case "argon2id" -> new Argon2idHasher(
+                    Integer.parseInt(parts[1]),
+                    Integer.parseInt(parts[2]),
+                    Integer.parseInt(parts[3])
+            );
+            default -> new Pbkdf2Hasher(Integer.parseInt(parts[1]));
+        };
+
+        this.hash = this.hasher.getHash(PASSWORD, this.hasher.getSalt());
+    }
+
+    @Benchmark
+    public String hash() {
+        return this.hasher.getHash(PASSWORD, this.hasher.getSalt());
+    }
+
+    @Benchmark
+    public boolean check() {
+        return this.hasher.checkHash(this.hash, PASSWORD);
+    }
+
+    // the gc profiler adds gc.alloc.rate.norm, the bytes a single hash allocates, which for argon2id is its memory cost
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HasherBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
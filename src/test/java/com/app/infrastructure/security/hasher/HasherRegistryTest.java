@@ -0,0 +1,59 @@
+package com.app.infrastructure.security.hasher;
+
+import com.app.infrastructure.security.hasher.exception.HasherException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class HasherRegistryTest {
+    @Mock
+    private HasherInterface bcrypt;
+
+    @Mock
+    private HasherInterface argon2id;
+
+    private HasherRegistry registry;
+
+    @BeforeEach
+    public void init() {
+        MockitoAnnotations.openMocks(this);
+
+        this.registry = new HasherRegistry(this.argon2id)
+                .register("$2a$", this.bcrypt)
+                .register("$argon2id$", this.argon2id);
+    }
+
+    @Test
+    public void shouldHashWithPrimaryHasher() {
+        when(argon2id.getSalt()).thenReturn("$argon2id$salt");
+        when(argon2id.getHash("123456", "$argon2id$salt")).thenReturn("$argon2id$hash");
+
+        assertEquals("$argon2id$hash", registry.getHash("123456", registry.getSalt()));
+        verifyNoInteractions(bcrypt);
+    }
+
+    @Test
+    public void shouldVerifyWithHasherMatchingPrefix() {
+        when(bcrypt.checkHash("$2a$10$hash", "123456")).thenReturn(true);
+
+        assertTrue(registry.checkHash("$2a$10$hash", "123456"));
+        verify(argon2id, never()).checkHash(anyString(), anyString());
+    }
+
+    @Test
+    public void shouldRequireRehash_whenStoredWithAnotherAlgorithm() {
+        when(argon2id.needsRehash("$argon2id$hash")).thenReturn(false);
+
+        assertTrue(registry.needsRehash("$2a$10$hash"));
+        assertFalse(registry.needsRehash("$argon2id$hash"));
+    }
+
+    @Test
+    public void shouldRejectUnknownHashFormat() {
+        assertThrows(HasherException.class, () -> registry.checkHash("plain_text", "123456"));
+    }
+}
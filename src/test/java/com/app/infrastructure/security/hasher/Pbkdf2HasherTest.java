@@ -0,0 +1,44 @@
+package com.app.infrastructure.security.hasher;
+
+import com.app.infrastructure.security.hasher.exception.HasherException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Pbkdf2HasherTest {
+
+    @Test
+    public void shouldEncodeIterationsInSalt() {
+        Pbkdf2Hasher hasher = new Pbkdf2Hasher(1000);
+
+        assertTrue(hasher.getSalt().startsWith("$pbkdf2-sha256$i=1000$"));
+    }
+
+    @Test
+    public void shouldValidateHash() {
+        Pbkdf2Hasher hasher = new Pbkdf2Hasher(1000);
+
+        String hash = hasher.getHash("123456", hasher.getSalt());
+
+        assertTrue(hasher.checkHash(hash, "123456"));
+        assertFalse(hasher.checkHash(hash, "1234567890"));
+    }
+
+    @Test
+    public void shouldRequireRehash_whenIterationsDiffer() {
+        Pbkdf2Hasher hasher = new Pbkdf2Hasher(2000);
+
+        String hash = new Pbkdf2Hasher(1000).getHash("123456", new Pbkdf2Hasher(1000).getSalt());
+
+        assertTrue(hasher.checkHash(hash, "123456"));
+        assertTrue(hasher.needsRehash(hash));
+        assertFalse(hasher.needsRehash(hasher.getHash("123456", hasher.getSalt())));
+    }
+
+    @Test
+    public void shouldRejectMalformedHash() {
+        Pbkdf2Hasher hasher = new Pbkdf2Hasher(1000);
+
+        assertThrows(HasherException.class, () -> hasher.checkHash("$pbkdf2-sha256$1000$salt$hash", "123456"));
+    }
+}
@@ -0,0 +1,119 @@
+package com.app.infrastructure.security.hasher;
+
+import com.app.infrastructure.security.hasher.exception.HasherOverloadedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class PooledHasherTest {
+    @Mock
+    private HasherInterface hasher;
+
+    private PooledHasher pooledHasher;
+
+    @BeforeEach
+    public void init() {
+        MockitoAnnotations.openMocks(this);
+        this.pooledHasher = new PooledHasher(this.hasher, 1, 1, 2, 1000);
+    }
+
+    @AfterEach
+    public void shutdown() {
+        this.pooledHasher.shutdown();
+    }
+
+    @Test
+    public void shouldDelegateHashing() {
+        when(hasher.getSalt()).thenReturn("salt");
+        when(hasher.getHash("123456", "salt")).thenReturn("hash");
+        when(hasher.checkHash("hash", "123456")).thenReturn(true);
+        when(hasher.needsRehash("hash")).thenReturn(true);
+
+        assertEquals("salt", pooledHasher.getSalt());
+        assertTrue(pooledHasher.needsRehash("hash"));
+        assertEquals("hash", pooledHasher.getHash("123456", "salt"));
+        assertTrue(pooledHasher.checkHash("hash", "123456"));
+        assertEquals(2, pooledHasher.getCompleted());
+    }
+
+    @Test
+    public void shouldPropagateHasherExceptions() {
+        when(hasher.checkHash("hash", "123456")).thenThrow(new IllegalArgumentException("Invalid hash"));
+
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> pooledHasher.checkHash("hash", "123456")
+        );
+
+        assertEquals("Invalid hash", exception.getMessage());
+    }
+
+    @Test
+    public void shouldRejectWork_whenPoolAndQueueAreFull() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(hasher.checkHash("hash", "123456")).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return true;
+        });
+
+        CompletableFuture<Boolean> running = pooledHasher.checkHashAsync("hash", "123456");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = pooledHasher.checkHashAsync("hash", "123456");
+
+        HasherOverloadedException exception = assertThrows(
+                HasherOverloadedException.class,
+                () -> pooledHasher.checkHash("hash", "123456")
+        );
+
+        assertEquals(2, exception.getRetryAfterSeconds());
+        assertEquals(1, pooledHasher.getRejections());
+        assertEquals(1, pooledHasher.getQueueDepth());
+
+        release.countDown();
+
+        assertTrue(running.join());
+        assertTrue(queued.join());
+        verify(hasher, times(2)).checkHash("hash", "123456");
+    }
+
+    @Test
+    public void shouldStopWaiting_whenHashTakesLongerThanTimeout() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(hasher.checkHash("hash", "123456")).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return true;
+        });
+
+        CompletableFuture<Boolean> running = pooledHasher.checkHashAsync("hash", "123456");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        HasherOverloadedException exception = assertThrows(
+                HasherOverloadedException.class,
+                () -> pooledHasher.checkHash("hash", "123456")
+        );
+
+        assertEquals(2, exception.getRetryAfterSeconds());
+        assertEquals(1, pooledHasher.getRejections());
+
+        release.countDown();
+
+        assertTrue(running.join());
+        // the timed out check was cancelled while still queued, so it never reached the hasher
+        verify(hasher, times(1)).checkHash("hash", "123456");
+    }
+}
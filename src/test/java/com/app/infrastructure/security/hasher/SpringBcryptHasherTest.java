@@ -1,6 +1,9 @@
 package com.app.infrastructure.security.hasher;
 
 import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class SpringBcryptHasherTest {
@@ -41,4 +44,31 @@ public class SpringBcryptHasherTest {
 
         assertFalse(hasher.checkHash(hash, "1234567890"));
     }
+
+    @Test
+    public void shouldUseConfiguredCost() {
+        SpringBcryptHasher hasher = new SpringBcryptHasher(5);
+
+        assertTrue(hasher.getSalt().startsWith("$2a$05$"));
+    }
+
+    @Test
+    public void shouldRequireRehash_whenCostDiffers() {
+        SpringBcryptHasher hasher = new SpringBcryptHasher(5);
+
+        String hash = new SpringBcryptHasher(4).getHash("123456", new SpringBcryptHasher(4).getSalt());
+
+        assertTrue(hasher.needsRehash(hash));
+        assertFalse(hasher.needsRehash(hasher.getHash("123456", hasher.getSalt())));
+        assertTrue(hasher.needsRehash("not_a_bcrypt_hash"));
+    }
+
+    @Test
+    public void shouldCalibrateCostWithinBounds() {
+        assertEquals(4, SpringBcryptHasher.calibrate(Duration.ZERO, 4, 6));
+
+        int cost = SpringBcryptHasher.calibrate(Duration.ofSeconds(10), 4, 6);
+
+        assertTrue(cost >= 4 && cost <= 6);
+    }
 }